@@ -0,0 +1,30 @@
+package com.fkhrayef.motor.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    @Value("${rag.ingestion.workers:2}")
+    private int ingestionWorkers;
+
+    @Value("${rag.ingestion.queue-capacity:50}")
+    private int ingestionQueueCapacity;
+
+    // Bounded pool for manual uploads (S3 put + RAG /process-s3 can take minutes per manual)
+    @Bean
+    public ThreadPoolTaskExecutor ingestionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ingestionWorkers);
+        executor.setMaxPoolSize(ingestionWorkers);
+        executor.setQueueCapacity(ingestionQueueCapacity);
+        executor.setThreadNamePrefix("manual-ingest-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+}
@@ -1,11 +1,17 @@
 package com.fkhrayef.motor.Config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class RAGApiConfig {
@@ -13,10 +19,40 @@ public class RAGApiConfig {
     @Value("${rag.api.url}")
     private String ragApiUrl;
 
+    // Connection pool (per-operation read timeouts live in ReactiveRAGService)
+    @Value("${rag.client.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${rag.client.pending-acquire-max:200}")
+    private int pendingAcquireMax;
+
+    @Value("${rag.client.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${rag.client.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${rag.client.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider ragConnectionProvider() {
+        return ConnectionProvider.builder("rag-api")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .build();
+    }
+
     @Bean
-    public WebClient ragApiClient() {
+    public WebClient ragApiClient(ConnectionProvider ragConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(ragConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs);
+
         return WebClient.builder()
                 .baseUrl(ragApiUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeaders(h -> {
                     h.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
                     h.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
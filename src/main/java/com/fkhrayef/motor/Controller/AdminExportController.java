@@ -0,0 +1,28 @@
+package com.fkhrayef.motor.Controller;
+
+import com.fkhrayef.motor.Service.AdminExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/v1/admin/export")
+@RequiredArgsConstructor
+public class AdminExportController {
+
+    private final AdminExportService adminExportService;
+
+    @GetMapping("/{entity}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String entity, @RequestParam(defaultValue = "ndjson") String format) {
+        boolean csv = adminExportService.isCsv(format);
+        StreamingResponseBody body = adminExportService.export(entity, format);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + entity + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+}
@@ -1,15 +1,22 @@
 package com.fkhrayef.motor.Controller;
 
+import com.fkhrayef.motor.DTOin.BatchQuestionRequest;
 import com.fkhrayef.motor.DTOout.*;
 import com.fkhrayef.motor.Model.User;
 import com.fkhrayef.motor.Service.CarAIService;
 import com.fkhrayef.motor.Service.RAGService;
+import com.fkhrayef.motor.Service.ReactiveRAGService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -22,6 +29,8 @@ public class CarAIController {
 
     private final RAGService ragService;
 
+    private final ReactiveRAGService reactiveRAGService;
+
     @PostMapping("/upload-manual/{carId}")
     public ResponseEntity<?> uploadManual(
             @AuthenticationPrincipal User user,
@@ -32,18 +41,43 @@ public class CarAIController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
 
-        ManualUploadResponse response = carAIService.uploadManual(user.getId(), carId, file);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        ManualIngestionJobResponse job = carAIService.uploadManual(user.getId(), carId, file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/ingestion-jobs/{jobId}")
+    public ResponseEntity<?> getIngestionJob(@AuthenticationPrincipal User user, @PathVariable Integer jobId) {
+        ManualIngestionJobResponse job = carAIService.getIngestionJob(user.getId(), jobId);
+        return ResponseEntity.status(HttpStatus.OK).body(job);
     }
 
     @PostMapping("/ask/{carId}")
-    public ResponseEntity<?> askQuestion(
+    public Mono<ResponseEntity<?>> askQuestion(
             @AuthenticationPrincipal User user,
             @PathVariable Integer carId,
             @RequestParam String question) {
 
-        QuestionResponse response = carAIService.askQuestion(user.getId(), carId, question);
-        return ResponseEntity.status(HttpStatus.OK).body(response);
+        return carAIService.askQuestion(user.getId(), carId, question)
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response));
+    }
+
+    @PostMapping("/ask-batch/{carId}")
+    public Mono<ResponseEntity<?>> askQuestions(
+            @AuthenticationPrincipal User user,
+            @PathVariable Integer carId,
+            @Valid @RequestBody BatchQuestionRequest request) {
+
+        return carAIService.askQuestions(user.getId(), carId, request.getQuestions())
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response));
+    }
+
+    @PostMapping(value = "/ask-stream/{carId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> askQuestionStream(
+            @AuthenticationPrincipal User user,
+            @PathVariable Integer carId,
+            @RequestParam String question) {
+
+        return carAIService.askQuestionStream(user.getId(), carId, question);
     }
 
     @GetMapping("/car/{carId}/info")
@@ -54,32 +88,33 @@ public class CarAIController {
 
     // TODO: Admin endpoints
     @GetMapping("/admin/documents")
-    public ResponseEntity<?> getAllDocuments() {
-        DocumentsInfoResponse documents = ragService.getDocumentsInfo();
-        return ResponseEntity.status(HttpStatus.OK).body(documents);
+    public Mono<ResponseEntity<?>> getAllDocuments() {
+        return reactiveRAGService.getDocumentsInfo()
+                .map(documents -> ResponseEntity.status(HttpStatus.OK).body(documents));
     }
 
     @GetMapping("/admin/search")
-    public ResponseEntity<?> searchDocuments(@RequestParam(required = false) String query) {
-        DocumentsInfoResponse documents = ragService.getDocumentsInfo();
-        List<String> documentNames = documents.getDocument_names() != null ? documents.getDocument_names() : List.of();
-        
-        if (query == null || query.trim().isEmpty()) {
-            AllDocumentsResponse response = new AllDocumentsResponse();
-            response.setDocuments(documentNames);
-            response.setTotal_count(documentNames.size());
+    public Mono<ResponseEntity<?>> searchDocuments(@RequestParam(required = false) String query) {
+        return reactiveRAGService.getDocumentsInfo().map(documents -> {
+            List<String> documentNames = documents.getDocument_names() != null ? documents.getDocument_names() : List.of();
+
+            if (query == null || query.trim().isEmpty()) {
+                AllDocumentsResponse response = new AllDocumentsResponse();
+                response.setDocuments(documentNames);
+                response.setTotal_count(documentNames.size());
+                return ResponseEntity.status(HttpStatus.OK).body(response);
+            }
+
+            List<String> filteredDocs = documentNames.stream()
+                    .filter(doc -> doc.toLowerCase().contains(query.toLowerCase()))
+                    .toList();
+
+            DocumentSearchResponse response = new DocumentSearchResponse();
+            response.setQuery(query);
+            response.setDocuments(filteredDocs);
+            response.setCount(filteredDocs.size());
             return ResponseEntity.status(HttpStatus.OK).body(response);
-        }
-        
-        List<String> filteredDocs = documentNames.stream()
-                .filter(doc -> doc.toLowerCase().contains(query.toLowerCase()))
-                .toList();
-        
-        DocumentSearchResponse response = new DocumentSearchResponse();
-        response.setQuery(query);
-        response.setDocuments(filteredDocs);
-        response.setCount(filteredDocs.size());
-        return ResponseEntity.status(HttpStatus.OK).body(response);
+        });
     }
 
     @GetMapping("/admin/check-document-exists")
@@ -90,4 +125,24 @@ public class CarAIController {
         response.setExists(exists);
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
+
+    @GetMapping("/admin/catalog-stats")
+    public ResponseEntity<?> getDocumentCatalogStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(ragService.getDocumentCatalogStats());
+    }
+
+    @GetMapping("/admin/answer-cache-stats")
+    public ResponseEntity<?> getAnswerCacheStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(ragService.getAnswerCacheStats());
+    }
+
+    @GetMapping("/admin/coalescing-stats")
+    public ResponseEntity<?> getCoalescingStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(ragService.getCoalescingStats());
+    }
+
+    @GetMapping("/admin/rag-client-stats")
+    public ResponseEntity<?> getRagClientStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(ragService.getClientStats());
+    }
 }
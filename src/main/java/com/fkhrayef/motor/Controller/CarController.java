@@ -3,6 +3,8 @@ package com.fkhrayef.motor.Controller;
 import com.fkhrayef.motor.Api.ApiResponse;
 import com.fkhrayef.motor.DTOin.CarDTO;
 import com.fkhrayef.motor.DTOin.CarMileageUpdateDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
+import com.fkhrayef.motor.Model.Car;
 import com.fkhrayef.motor.Model.User;
 import com.fkhrayef.motor.Service.CarService;
 import jakarta.validation.Valid;
@@ -26,8 +28,9 @@ public class CarController {
 
     // TODO: ADMIN
     @GetMapping("/get")
-    public ResponseEntity<?> getAllCars() {
-        return ResponseEntity.status(HttpStatus.OK).body(carService.getAllCars());
+    public ResponseEntity<?> getAllCars(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        KeysetPage<Car> page = carService.getAllCars(cursor, size);
+        return ResponseEntity.status(HttpStatus.OK).headers(page.toHeaders()).body(page.getItems());
     }
 
     @PostMapping("/add")
@@ -192,6 +195,33 @@ public class CarController {
         return ResponseEntity.status(HttpStatus.OK).body(carService.getTypicalMileagePerYear(user.getId(), make, model, city));
     }
 
+    // p10/p50/p90 and histograms of mileage per year and yearly maintenance cost
+    @GetMapping("/distribution/{make}/{model}")
+    public ResponseEntity<?> getDistribution(
+            @AuthenticationPrincipal User user,
+            @PathVariable String make,
+            @PathVariable String model,
+            @RequestParam(required = false) String city
+    ) {
+        return ResponseEntity.status(HttpStatus.OK).body(carService.getDistribution(user.getId(), make, model, city));
+    }
+
+    // Projected maintenance cost for the next 12 months, refreshed nightly
+    @GetMapping("/cost-forecast/{carId}")
+    public ResponseEntity<?> getCostForecast(@AuthenticationPrincipal User user, @PathVariable Integer carId) {
+        return ResponseEntity.status(HttpStatus.OK).body(carService.getCostForecast(user.getId(), carId));
+    }
+
+    @GetMapping("/admin/analytics-cache-stats")
+    public ResponseEntity<?> getAnalyticsCacheStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(carService.getAnalyticsCacheStats());
+    }
+
+    @GetMapping("/admin/analytics-snapshot-stats")
+    public ResponseEntity<?> getAnalyticsSnapshotStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(carService.getAnalyticsSnapshotStats());
+    }
+
     // TODO: Admin
     @GetMapping("/numbers/{userId}")
     public ResponseEntity<?> getCarsNo(@PathVariable Integer userId) {
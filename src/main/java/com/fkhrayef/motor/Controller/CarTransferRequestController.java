@@ -1,6 +1,7 @@
 package com.fkhrayef.motor.Controller;
 
 import com.fkhrayef.motor.DTOin.CarTransferResponseDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
 import com.fkhrayef.motor.Model.User;
 import com.fkhrayef.motor.Service.CarTransferRequestService;
 import jakarta.validation.Valid;
@@ -61,9 +62,9 @@ public class CarTransferRequestController {
 
     // TODO: ADMIN
     @GetMapping("/by-status/{status}")
-    public ResponseEntity<?> byStatus(@PathVariable String status) {
-        List<CarTransferResponseDTO> list = transferService.getByStatus(status);
-        return ResponseEntity.status(200).body(list);
+    public ResponseEntity<?> byStatus(@PathVariable String status, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        KeysetPage<CarTransferResponseDTO> page = transferService.getByStatus(status, cursor, size);
+        return ResponseEntity.status(200).headers(page.toHeaders()).body(page.getItems());
     }
 
     @PostMapping("/direct/{carId}/{toEmail}/{toPhone}")
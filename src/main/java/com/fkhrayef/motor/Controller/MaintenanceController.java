@@ -2,6 +2,7 @@ package com.fkhrayef.motor.Controller;
 
 import com.fkhrayef.motor.Api.ApiResponse;
 import com.fkhrayef.motor.DTOin.MaintenanceDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
 import com.fkhrayef.motor.Model.Maintenance;
 import com.fkhrayef.motor.Model.User;
 import com.fkhrayef.motor.Service.MaintenanceService;
@@ -24,8 +25,9 @@ public class MaintenanceController {
 
     // TODO: ADMIN
     @GetMapping("/get")
-    public ResponseEntity<?> getAllMaintenances() {
-        return ResponseEntity.status(HttpStatus.OK).body(maintenanceService.getAllMaintenances());
+    public ResponseEntity<?> getAllMaintenances(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        KeysetPage<Maintenance> page = maintenanceService.getAllMaintenances(cursor, size);
+        return ResponseEntity.status(HttpStatus.OK).headers(page.toHeaders()).body(page.getItems());
     }
 
     @PostMapping("/add/{carId}")
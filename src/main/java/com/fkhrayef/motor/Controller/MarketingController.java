@@ -2,6 +2,8 @@ package com.fkhrayef.motor.Controller;
 
 import com.fkhrayef.motor.Api.ApiResponse;
 import com.fkhrayef.motor.DTOin.MarketingDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
+import com.fkhrayef.motor.Model.Marketing;
 import com.fkhrayef.motor.Service.MarketingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -17,8 +19,9 @@ public class MarketingController {
 
     // TODO: Admin endpoints
     @GetMapping("/get")
-    public ResponseEntity<?> getAllMarketing (){
-        return ResponseEntity.status(200).body(marketingService.getAllMarketing());
+    public ResponseEntity<?> getAllMarketing (@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size){
+        KeysetPage<Marketing> page = marketingService.getAllMarketing(cursor, size);
+        return ResponseEntity.status(200).headers(page.toHeaders()).body(page.getItems());
     }
     @PostMapping("/add")
     public ResponseEntity<?> addMarketing(@Valid @RequestBody MarketingDTO marketingDTO){
@@ -0,0 +1,27 @@
+package com.fkhrayef.motor.Controller;
+
+import com.fkhrayef.motor.Service.FanOutService;
+import com.fkhrayef.motor.Service.NotificationOutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/notifications")
+@RequiredArgsConstructor
+public class NotificationOutboxController {
+
+    private final NotificationOutboxService outboxService;
+    private final FanOutService fanOutService;
+
+    @GetMapping("/outbox-stats")
+    public ResponseEntity<?> getOutboxStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(outboxService.getStats());
+    }
+
+    @GetMapping("/fan-out-stats")
+    public ResponseEntity<?> getFanOutStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(fanOutService.getStats());
+    }
+}
@@ -2,6 +2,8 @@ package com.fkhrayef.motor.Controller;
 
 import com.fkhrayef.motor.Api.ApiResponse;
 import com.fkhrayef.motor.DTOin.ReminderDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
+import com.fkhrayef.motor.Model.Reminder;
 import com.fkhrayef.motor.Model.User;
 import com.fkhrayef.motor.Service.ReminderService;
 import jakarta.validation.Valid;
@@ -10,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 @RestController
 @AllArgsConstructor
@@ -20,8 +23,9 @@ public class ReminderController {
 
     // TODO: ADMIN
     @GetMapping("/get")
-    public ResponseEntity<?> getAllReminders() {
-        return ResponseEntity.status(HttpStatus.OK).body(reminderService.getAllReminders());
+    public ResponseEntity<?> getAllReminders(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        KeysetPage<Reminder> page = reminderService.getAllReminders(cursor, size);
+        return ResponseEntity.status(HttpStatus.OK).headers(page.toHeaders()).body(page.getItems());
     }
 
     @PostMapping("/add/{carId}")
@@ -48,9 +52,9 @@ public class ReminderController {
     }
 
     @PostMapping("/generate-maintenance/{carId}")
-    public ResponseEntity<?> generateMaintenanceReminders(@AuthenticationPrincipal User user, @PathVariable Integer carId) {
-        reminderService.generateAndSaveMaintenanceReminders(user.getId(), carId);
-        return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse("Maintenance reminders generated successfully"));
+    public Mono<ResponseEntity<?>> generateMaintenanceReminders(@AuthenticationPrincipal User user, @PathVariable Integer carId) {
+        return reminderService.generateAndSaveMaintenanceReminders(user.getId(), carId)
+                .thenReturn(ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse("Maintenance reminders generated successfully")));
     }
 
 }
@@ -2,6 +2,7 @@ package com.fkhrayef.motor.Controller;
 
 import com.fkhrayef.motor.Api.ApiResponse;
 import com.fkhrayef.motor.DTOin.UserDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
 import com.fkhrayef.motor.Model.User;
 import com.fkhrayef.motor.Service.UserService;
 import jakarta.validation.Valid;
@@ -27,8 +28,9 @@ public class UserController {
 
     // TODO: ADMIN
     @GetMapping("/get")
-    public ResponseEntity<?> getAllUsers() {
-        return ResponseEntity.status(HttpStatus.OK).body(userService.getAllUsers());
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        KeysetPage<User> page = userService.getAllUsers(cursor, size);
+        return ResponseEntity.status(HttpStatus.OK).headers(page.toHeaders()).body(page.getItems());
     }
 
     @PostMapping("/register")
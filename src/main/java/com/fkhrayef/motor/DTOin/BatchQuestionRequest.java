@@ -0,0 +1,19 @@
+package com.fkhrayef.motor.DTOin;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchQuestionRequest {
+    @NotEmpty(message = "Questions cannot be empty")
+    private List<@NotBlank(message = "Question must not be empty") String> questions;
+}
@@ -0,0 +1,26 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsCacheStatsResponse {
+    private boolean enabled;
+    private int size;
+    private int maxEntries;
+    private long ttlMs;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private double averageServedAgeMs;
+    private long maxServedAgeMs;
+    private long oldestEntryAgeMs;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+}
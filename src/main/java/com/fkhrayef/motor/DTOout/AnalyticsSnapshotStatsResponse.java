@@ -0,0 +1,24 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsSnapshotStatsResponse {
+    private boolean loaded;
+    private String builtAt;
+    private long ageMs;
+    private long lastBuildMillis;
+    private int carCount;
+    private int makeModelCount;
+    private int cityCount;
+    private long memoryBytes;
+    private long rebuilds;
+    private long rebuildFailures;
+    private long refreshes;
+}
@@ -0,0 +1,17 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnswerSourcesEvent {
+    private String document_name;
+    private List<String> source_pages;
+}
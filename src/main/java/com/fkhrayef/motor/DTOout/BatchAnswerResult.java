@@ -0,0 +1,18 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchAnswerResult {
+    private Integer index;
+    private String question;
+    private String status;
+    private QuestionResponse response;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchQuestionResponse {
+    private String document_name;
+    private Integer total;
+    private Integer answered;
+    private Integer failed;
+    private List<BatchAnswerResult> results;
+}
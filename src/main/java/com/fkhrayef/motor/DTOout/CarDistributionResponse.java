@@ -0,0 +1,18 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CarDistributionResponse {
+    private String make;
+    private String model;
+    private String city;
+    private DistributionSummary mileagePerYear;
+    private DistributionSummary yearlyMaintenanceCost;
+}
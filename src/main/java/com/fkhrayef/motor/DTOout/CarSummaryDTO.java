@@ -0,0 +1,41 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Car columns plus small history summaries, built by a single JPQL constructor query
+ * (the field order must match CarRepository.findCarSummariesByUserId)
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CarSummaryDTO {
+    private Integer id;
+    private String make;
+    private String model;
+    private Integer year;
+    private String nickname;
+    private Integer mileage;
+    private String vin;
+    private LocalDate purchaseDate;
+    private String registrationFileUrl;
+    private LocalDate registrationExpiry;
+    private String insuranceFileUrl;
+    private LocalDate insuranceEndDate;
+    private Boolean isAccessible;
+
+    private Long maintenanceCount;
+    private LocalDate lastServiceDate;
+    private Long pendingReminderCount;
+    private LocalDate nextReminderDueDate;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
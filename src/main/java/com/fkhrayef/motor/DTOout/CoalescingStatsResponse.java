@@ -0,0 +1,21 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CoalescingStatsResponse {
+    private long requests;
+    private long upstreamCalls;
+    private long coalesced;
+    private double coalescedRatio;
+    private int inFlight;
+    private Map<String, Long> coalescedByOperation;
+}
@@ -0,0 +1,20 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CostForecastResponse {
+    private Integer carId;
+    private Double projectedCost;
+    private Integer peerCount;
+    private String basis;
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,21 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DistributionSummary {
+    private String unit;
+    private long count;
+    private double p10;
+    private double p50;
+    private double p90;
+    private List<HistogramBin> histogram;
+}
@@ -0,0 +1,23 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DocumentCatalogStatsResponse {
+    private boolean loaded;
+    private int documentCount;
+    private String lastRefreshedAt;
+    private Long stalenessMs;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long refreshes;
+    private long refreshFailures;
+    private String lastRefreshError;
+}
@@ -0,0 +1,26 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Last run of one fan-out job
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FanOutStatsResponse {
+    private String job;
+    private String finishedAt;
+    private int tasks;
+    private int succeeded;
+    private int failed;
+    private long durationMs;
+    private double tasksPerSecond;
+    private long totalRuns;
+    private long totalTasks;
+    private boolean virtualThreads;
+}
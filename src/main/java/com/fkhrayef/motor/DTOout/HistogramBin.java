@@ -0,0 +1,17 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HistogramBin {
+    private double from;
+    // null for the last, open-ended bin
+    private Double to;
+    private long count;
+}
@@ -0,0 +1,32 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MaintenanceScheduleResponseDTO {
+
+    private Boolean success;
+    private List<ScheduleItemDTO> items;
+    private String documentName;
+    private String error;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ScheduleItemDTO {
+        private String task;
+        private String category;
+        private String priority;
+        private Integer intervalKm;
+        private Integer intervalMonths;
+    }
+}
@@ -0,0 +1,26 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ManualIngestionJobResponse {
+    private Integer jobId;
+    private String status;
+    private String documentName;
+    private Integer carId;
+    private Integer attempts;
+    private Integer maxAttempts;
+    private String s3Url;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,24 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationOutboxStatsResponse {
+    // Queue depth, from the table
+    private long pending;
+    private long sending;
+    private long dead;
+    private long oldestPendingAgeMs;
+    // Since this instance started
+    private long delivered;
+    private long retried;
+    private long deadLettered;
+    private double averageLatencyMs;
+    private long maxLatencyMs;
+}
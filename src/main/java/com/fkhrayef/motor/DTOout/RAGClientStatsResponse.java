@@ -0,0 +1,24 @@
+package com.fkhrayef.motor.DTOout;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RAGClientStatsResponse {
+    private String breakerState;
+    private int windowCalls;
+    private double windowFailureRate;
+    private Map<String, Long> stateTransitions;
+    private long rejectedByBreaker;
+    private int bulkheadMaxConcurrent;
+    private int bulkheadInUse;
+    private long rejectedByBulkhead;
+    private Map<String, Map<String, Long>> operations;
+}
@@ -0,0 +1,16 @@
+package com.fkhrayef.motor.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published when something that decides which of a user's cars are accessible changes:
+ * a subscription is activated, expires or is cancelled, or a car is added, deleted or transferred
+ */
+@Getter
+@AllArgsConstructor
+public class CarAccessChangedEvent {
+    private List<Integer> userIds;
+}
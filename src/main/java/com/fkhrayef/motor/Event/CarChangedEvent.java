@@ -0,0 +1,19 @@
+package com.fkhrayef.motor.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a car is added, updated or deleted. previousMake/previousModel differ from make/model
+ * when the update moved the car to another model.
+ */
+@Getter
+@AllArgsConstructor
+public class CarChangedEvent {
+    private Integer carId;
+    private String make;
+    private String model;
+    private String previousMake;
+    private String previousModel;
+    private boolean deleted;
+}
@@ -0,0 +1,15 @@
+package com.fkhrayef.motor.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a maintenance record (or its invoice amount) of a car is added, updated or deleted
+ */
+@Getter
+@AllArgsConstructor
+public class MaintenanceChangedEvent {
+    private Integer carId;
+    private String make;
+    private String model;
+}
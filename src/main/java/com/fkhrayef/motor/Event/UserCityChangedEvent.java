@@ -0,0 +1,13 @@
+package com.fkhrayef.motor.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a user's city changes; city statistics of all the user's cars move with it
+ */
+@Getter
+@AllArgsConstructor
+public class UserCityChangedEvent {
+    private Integer userId;
+}
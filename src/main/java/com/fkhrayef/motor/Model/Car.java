@@ -25,6 +25,7 @@ import java.util.Set;
         "make IN ('Toyota','Lexus','Hyundai','Nissan','Kia','Chevrolet','GMC','Ford','Mazda','Mitsubishi','Isuzu','Infiniti','Genesis') " +
                 "AND model IN ('Land Cruiser','Prado','Camry','Corolla','Hilux','Yaris','Avalon','LX570','ES350','Sonata','Elantra','Tucson','Palisade','Altima','Patrol','X-Trail','Sportage','Sorento','Sentra','Tahoe','Suburban','Silverado','Yukon','Sierra','F-150','Explorer','CX-5','L200','D-Max') " +
                 "AND year BETWEEN 1990 AND 2025")
+@Table(indexes = @Index(name = "idx_car_make_model_purchase", columnList = "make, model, purchase_date"))
 public class Car {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,6 +19,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Entity
 @Check(constraints = "mileage >= 0")
+@Table(indexes = @Index(name = "idx_maintenance_car_service_date", columnList = "car_id, service_date"))
 public class Maintenance {
 
     @Id
@@ -0,0 +1,54 @@
+package com.fkhrayef.motor.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projected maintenance spend for the next 12 months of one car, written by the nightly forecast job.
+ * The projection is what similar cars (same make/model, and the same mileage band when there are enough of them)
+ * spent over the last 12 months.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_cost_forecast_car", columnNames = "car_id"))
+public class MaintenanceCostForecast {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // Plain id, rows of deleted cars are dropped by the next run
+    @Column(columnDefinition = "int not null")
+    private Integer carId;
+
+    @Column(columnDefinition = "varchar(255) not null")
+    private String make;
+
+    @Column(columnDefinition = "varchar(255) not null")
+    private String model;
+
+    @Column(columnDefinition = "int not null")
+    private Integer mileageBand;
+
+    @Column(columnDefinition = "double not null")
+    private Double projectedCost;
+
+    // Number of cars the projection is based on
+    @Column(columnDefinition = "int not null")
+    private Integer peerCount;
+
+    // "mileage_band" or "make_model"
+    @Column(columnDefinition = "varchar(20) not null")
+    private String basis;
+
+    @Column(columnDefinition = "datetime not null")
+    private LocalDateTime computedAt;
+}
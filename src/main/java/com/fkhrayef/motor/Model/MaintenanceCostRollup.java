@@ -0,0 +1,45 @@
+package com.fkhrayef.motor.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Maintenance spend and visit count per (make, model, mileage band, month).
+ * The mileage band is the car's current mileage divided by the band size.
+ * Kept up to date incrementally by MaintenanceCostRollupService and rebuilt nightly.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_cost_rollup_key", columnNames = {"make", "model", "mileage_band", "month_start"}))
+public class MaintenanceCostRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(columnDefinition = "varchar(255) not null")
+    private String make;
+
+    @Column(columnDefinition = "varchar(255) not null")
+    private String model;
+
+    @Column(columnDefinition = "int not null")
+    private Integer mileageBand;
+
+    @Column(columnDefinition = "date not null")
+    private LocalDate monthStart;
+
+    @Column(columnDefinition = "double not null")
+    private Double totalSpend;
+
+    @Column(columnDefinition = "int not null")
+    private Integer visitCount;
+}
@@ -0,0 +1,51 @@
+package com.fkhrayef.motor.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One recurring task from a manual's maintenance schedule (e.g. "Replace engine oil" every 10,000 km or 6 months).
+ * Extracted once per document and shared by every car using that manual.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Check(constraints = "interval_km > 0 OR interval_months > 0")
+@Table(indexes = @Index(name = "idx_schedule_item_document", columnList = "document_name"))
+public class MaintenanceScheduleItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(columnDefinition = "varchar(255) not null")
+    private String documentName;
+
+    @Column(columnDefinition = "varchar(255) not null")
+    private String task;
+
+    @Column(columnDefinition = "VARCHAR(100)")
+    private String category;
+
+    @Column(columnDefinition = "VARCHAR(50)")
+    private String priority;
+
+    @Column(columnDefinition = "INT")
+    private Integer intervalKm;
+
+    @Column(columnDefinition = "INT")
+    private Integer intervalMonths;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,67 @@
+package com.fkhrayef.motor.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Check(constraints = "status IN ('queued','uploading','processing','completed','failed')")
+@Table(indexes = @Index(name = "idx_ingestion_job_document_status", columnList = "document_name, status"))
+public class ManualIngestionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(columnDefinition = "varchar(20) not null")
+    private String status = "queued";
+
+    @Column(columnDefinition = "varchar(255) not null")
+    private String documentName;
+
+    @Column(columnDefinition = "varchar(255) not null")
+    private String catalogPath;
+
+    // Local copy of the uploaded PDF, kept until the job finishes so retries and restarts can resume
+    @Column(columnDefinition = "varchar(500)")
+    private String stagedFilePath;
+
+    @Column(columnDefinition = "varchar(100)")
+    private String contentType;
+
+    @Column(columnDefinition = "varchar(500)")
+    private String s3Url;
+
+    @Column(columnDefinition = "int not null")
+    private Integer attempts = 0;
+
+    @Column(columnDefinition = "varchar(1000)")
+    private String lastError;
+
+    // Plain ids so deleting a car or user does not depend on the job history
+    @Column(columnDefinition = "int not null")
+    private Integer carId;
+
+    @Column(columnDefinition = "int not null")
+    private Integer userId;
+
+    private LocalDateTime completedAt;
+
+    // Timestamps
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,70 @@
+package com.fkhrayef.motor.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Check(constraints = "channel IN ('whatsapp','email','email_html')")
+@Check(constraints = "status IN ('pending','sending','sent','dead')")
+@Table(indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_outbox_claim_token", columnList = "claim_token")
+})
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(columnDefinition = "varchar(20) not null")
+    private String channel;
+
+    // Phone number for WhatsApp, address for email
+    @Column(columnDefinition = "varchar(200) not null")
+    private String recipient;
+
+    @Column(columnDefinition = "varchar(200)")
+    private String subject;
+
+    @Column(columnDefinition = "TEXT not null")
+    private String body;
+
+    @Column(columnDefinition = "varchar(20) not null")
+    private String status = "pending";
+
+    @Column(columnDefinition = "int not null")
+    private Integer attempts = 0;
+
+    @Column(columnDefinition = "datetime not null")
+    private LocalDateTime nextAttemptAt;
+
+    // Set when a worker claims the row, so a crashed delivery can be handed out again
+    @Column(columnDefinition = "varchar(36)")
+    private String claimToken;
+
+    private LocalDateTime claimedAt;
+
+    @Column(columnDefinition = "varchar(1000)")
+    private String lastError;
+
+    private LocalDateTime sentAt;
+
+    // Timestamps
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -19,6 +19,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "idx_reminder_due_date_sent", columnList = "due_date, is_sent"))
 @Check(constraints = "type IN ('license_expiry','insurance_expiry','registration_expiry','maintenance')")
 @Check(constraints = "mileage >= 0")
 public class Reminder {
@@ -0,0 +1,36 @@
+package com.fkhrayef.motor.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease on a scheduled job (or one partition of it). The holder owns the job until lockedUntil;
+ * all times come from the database clock so app servers may disagree about the time.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+public class SchedulerLock {
+
+    @Id
+    @Column(columnDefinition = "varchar(100)")
+    private String name;
+
+    @Column(columnDefinition = "varchar(100)")
+    private String lockedBy;
+
+    @Column(columnDefinition = "datetime(3) not null")
+    private LocalDateTime lockedAt;
+
+    @Column(columnDefinition = "datetime(3) not null")
+    private LocalDateTime lockedUntil;
+}
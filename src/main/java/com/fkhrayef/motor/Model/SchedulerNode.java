@@ -0,0 +1,32 @@
+package com.fkhrayef.motor.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One running app instance; nodes with a recent heartbeat share the partitioned scheduler jobs
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+public class SchedulerNode {
+
+    @Id
+    @Column(columnDefinition = "varchar(100)")
+    private String nodeId;
+
+    @Column(columnDefinition = "datetime(3) not null")
+    private LocalDateTime lastHeartbeat;
+
+    @Column(columnDefinition = "datetime(3) not null")
+    private LocalDateTime startedAt;
+}
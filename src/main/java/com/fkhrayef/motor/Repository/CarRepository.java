@@ -1,26 +1,118 @@
 package com.fkhrayef.motor.Repository;
 
+import com.fkhrayef.motor.DTOout.CarSummaryDTO;
 import com.fkhrayef.motor.Model.Car;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CarRepository extends JpaRepository<Car, Integer> {
     Car findCarById(Integer id);
 
+    // Scalar export rows, nothing is held in the persistence context. Integer.MIN_VALUE makes MySQL stream the
+    // result row by row for this query only, the rest of the app keeps the default buffered result sets
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT c.id, u.id, c.make, c.model, c.year, c.nickname, c.mileage, c.vin, c.purchaseDate, " +
+            "c.registrationExpiry, c.insuranceEndDate, c.isAccessible, c.createdAt, c.updatedAt FROM Car c LEFT JOIN c.user u ORDER BY c.id")
+    Stream<Object[]> streamExportRows();
+
+    List<Car> findAllByIdGreaterThanOrderByIdAsc(Integer afterId, Limit limit);
+
     Car findCarByIdAndUserId(Integer carId , Integer userId);
 
-    List<Car> findCarsByUserId(Integer id);
+    @Query("SELECT c.id FROM Car c WHERE c.user.id = ?1")
+    List<Integer> findIdsByUserId(Integer userId);
+
+    // Ids of the user's cars whose manual has this document name ("<year> <make> <model> owner-manual")
+    @Query("SELECT c.id FROM Car c WHERE c.user.id = ?1 " +
+            "AND CONCAT(CAST(c.year AS String), ' ', c.make, ' ', c.model, ' owner-manual') = ?2 ORDER BY c.id")
+    List<Integer> findIdsByUserIdAndDocumentName(Integer userId, String documentName);
+
+    // One query for the whole list: no maintenances, reminders or transfer requests are loaded
+    @Query("SELECT new com.fkhrayef.motor.DTOout.CarSummaryDTO(c.id, c.make, c.model, c.year, c.nickname, c.mileage, c.vin, " +
+            "c.purchaseDate, c.registrationFileUrl, c.registrationExpiry, c.insuranceFileUrl, c.insuranceEndDate, c.isAccessible, " +
+            "(SELECT COUNT(m.id) FROM Maintenance m WHERE m.car = c), " +
+            "(SELECT MAX(m.serviceDate) FROM Maintenance m WHERE m.car = c), " +
+            "(SELECT COUNT(r.id) FROM Reminder r WHERE r.car = c AND r.isSent = false), " +
+            "(SELECT MIN(r.dueDate) FROM Reminder r WHERE r.car = c AND r.isSent = false AND r.dueDate >= ?2), " +
+            "c.createdAt, c.updatedAt) " +
+            "FROM Car c WHERE c.user.id = ?1 ORDER BY c.id")
+    List<CarSummaryDTO> findCarSummariesByUserId(Integer userId, LocalDate today);
 
-    List<Car> findByMakeAndModel(String make, String model);
+    @Query("SELECT c.mileage, c.purchaseDate FROM Car c LEFT JOIN c.user u WHERE c.make = ?1 AND c.model = ?2 " +
+            "AND (?3 IS NULL OR LOWER(u.city) = LOWER(?3))")
+    List<Object[]> findMileageRows(String make, String model, String city);
 
     long countByUserId(Integer userId);
 
-    List<Car> findByUserIdOrderByCreatedAtAsc(Integer userId);
+    long countByMakeAndModel(String make, String model);
+
+    long countByMakeAndModelAndMileageBetween(String make, String model, Integer minMileage, Integer maxMileage);
+
+    // Each car ranked by creation among its owner's cars, next to the owner's plan limit (keep in line with CarService.enforceCarLimit)
+    String RANKED_CAR_ACCESS = "SELECT c2.id, " +
+            "ROW_NUMBER() OVER (PARTITION BY c2.user_id ORDER BY c2.created_at, c2.id) AS car_rank, " +
+            "CASE WHEN s.status = 'active' AND (s.end_date IS NULL OR s.end_date > NOW()) THEN " +
+            "CASE LOWER(s.plan_type) WHEN 'pro' THEN 5 WHEN 'enterprise' THEN 2147483647 ELSE 1 END " +
+            "ELSE 1 END AS car_limit " +
+            "FROM car c2 LEFT JOIN subscription s ON s.id = c2.user_id ";
+
+    // Only rows whose flag actually changes are written
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE car c JOIN (" + RANKED_CAR_ACCESS + "WHERE c2.user_id IN (?1)) r ON r.id = c.id " +
+            "SET c.is_accessible = (r.car_rank <= r.car_limit) " +
+            "WHERE c.is_accessible IS NULL OR c.is_accessible <> (r.car_rank <= r.car_limit)", nativeQuery = true)
+    int updateAccessibilityForUsers(Collection<Integer> userIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE car c JOIN (" + RANKED_CAR_ACCESS + "WHERE c2.user_id IS NOT NULL) r ON r.id = c.id " +
+            "SET c.is_accessible = (r.car_rank <= r.car_limit) " +
+            "WHERE c.is_accessible IS NULL OR c.is_accessible <> (r.car_rank <= r.car_limit)", nativeQuery = true)
+    int updateAccessibilityForAllUsers();
+
+    // One row per matching car: its MAINTENANCE visits since ?3. Filters on the (make, model, purchase_date) index
+    @Query("SELECT COUNT(m.id) FROM Car c LEFT JOIN c.maintenances m " +
+            "ON UPPER(m.recordType) = 'MAINTENANCE' AND m.serviceDate >= ?3 " +
+            "WHERE c.make = ?1 AND c.model = ?2 " +
+            "AND (c.purchaseDate IS NULL OR c.purchaseDate BETWEEN ?4 AND ?5) " +
+            "GROUP BY c.id")
+    List<Long> countVisitsPerCar(String make, String model, LocalDate since, LocalDate purchasedFrom, LocalDate purchasedTo);
+
+    // Per-car analytics columns: id, make, model, mileage, purchaseDate, owner's city
+    @Query("SELECT c.id, c.make, c.model, c.mileage, c.purchaseDate, u.city FROM Car c LEFT JOIN c.user u")
+    List<Object[]> findAnalyticsRows();
+
+    @Query("SELECT c.id, c.make, c.model, c.mileage, c.purchaseDate, u.city FROM Car c LEFT JOIN c.user u " +
+            "WHERE c.make = ?1 AND c.model = ?2")
+    List<Object[]> findAnalyticsRowsByMakeAndModel(String make, String model);
+
+    @Query("SELECT DISTINCT c.make, c.model FROM Car c WHERE c.user.id = ?1")
+    List<Object[]> findMakeModelsByUserId(Integer userId);
+
+    @Query("SELECT c.id, c.make, c.model, c.mileage, c.purchaseDate, u.city FROM Car c LEFT JOIN c.user u WHERE c.id = ?1")
+    List<Object[]> findAnalyticsRowsById(Integer carId);
+
+    // Weekly mileage reminder rows (car id, user id, phone, make, model, year, mileage) for users in partition ?4 of ?3,
+    // ordered by owner so a user's cars are adjacent; keyset on (user id, car id)
+    @Query("SELECT c.id, u.id, u.phone, c.make, c.model, c.year, c.mileage FROM Car c JOIN c.user u " +
+            "WHERE u.phone IS NOT NULL AND u.phone <> '' AND MOD(u.id, ?3) = ?4 " +
+            "AND (u.id > ?1 OR (u.id = ?1 AND c.id > ?2)) ORDER BY u.id, c.id")
+    List<Object[]> findMileageReminderRows(Integer afterUserId, Integer afterCarId, int partitionCount, int partitionIndex, Limit limit);
 
     List<Car> findByRegistrationExpiry(LocalDate date);
     List<Car> findByInsuranceEndDate(LocalDate date);
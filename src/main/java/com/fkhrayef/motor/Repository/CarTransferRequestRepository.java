@@ -1,6 +1,7 @@
 package com.fkhrayef.motor.Repository;
 
 import com.fkhrayef.motor.Model.CarTransferRequest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -15,7 +16,7 @@ public interface CarTransferRequestRepository extends JpaRepository<CarTransferR
     List<CarTransferRequest> findAllByToUser_Id(Integer userId);
 
     List<CarTransferRequest> findAllByCar_Id(Integer carId);
-    List<CarTransferRequest> findAllByStatus(String status);
+    List<CarTransferRequest> findAllByStatusAndIdGreaterThanOrderByIdAsc(String status, Integer afterId, Limit limit);
 
 
     CarTransferRequest findByIdAndToUser_Id(Integer id, Integer toUserId);
@@ -0,0 +1,10 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.MaintenanceCostForecast;
+
+import java.util.List;
+
+public interface MaintenanceCostForecastBatchRepository {
+    // Inserts or replaces the forecast of every car in one JDBC batch
+    void batchUpsert(List<MaintenanceCostForecast> forecasts);
+}
@@ -0,0 +1,39 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.MaintenanceCostForecast;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MaintenanceCostForecastBatchRepositoryImpl implements MaintenanceCostForecastBatchRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO maintenance_cost_forecast " +
+            "(car_id, make, model, mileage_band, projected_cost, peer_count, basis, computed_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE make = VALUES(make), model = VALUES(model), mileage_band = VALUES(mileage_band), " +
+            "projected_cost = VALUES(projected_cost), peer_count = VALUES(peer_count), basis = VALUES(basis), " +
+            "computed_at = VALUES(computed_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchUpsert(List<MaintenanceCostForecast> forecasts) {
+        if (forecasts.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, forecasts, forecasts.size(), (ps, forecast) -> {
+            ps.setInt(1, forecast.getCarId());
+            ps.setString(2, forecast.getMake());
+            ps.setString(3, forecast.getModel());
+            ps.setInt(4, forecast.getMileageBand());
+            ps.setDouble(5, forecast.getProjectedCost());
+            ps.setInt(6, forecast.getPeerCount());
+            ps.setString(7, forecast.getBasis());
+            ps.setTimestamp(8, Timestamp.valueOf(forecast.getComputedAt()));
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.MaintenanceCostForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface MaintenanceCostForecastRepository extends JpaRepository<MaintenanceCostForecast, Integer>, MaintenanceCostForecastBatchRepository {
+
+    MaintenanceCostForecast findMaintenanceCostForecastByCarId(Integer carId);
+
+    // Rows not rewritten by the latest run belong to cars that no longer exist
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MaintenanceCostForecast f WHERE f.computedAt < ?1")
+    int deleteComputedBefore(LocalDateTime runStartedAt);
+}
@@ -0,0 +1,42 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.MaintenanceCostRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Repository
+public interface MaintenanceCostRollupRepository extends JpaRepository<MaintenanceCostRollup, Integer> {
+
+    // Adds the deltas to the row for this key, creating it if needed
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO maintenance_cost_rollup (make, model, mileage_band, month_start, total_spend, visit_count) " +
+            "VALUES (?1, ?2, ?3, ?4, ?5, ?6) " +
+            "ON DUPLICATE KEY UPDATE total_spend = total_spend + VALUES(total_spend), visit_count = visit_count + VALUES(visit_count)",
+            nativeQuery = true)
+    void upsertDelta(String make, String model, Integer mileageBand, LocalDate monthStart, Double spendDelta, Integer visitDelta);
+
+    @Modifying
+    @Query(value = "DELETE FROM maintenance_cost_rollup", nativeQuery = true)
+    void deleteAllRows();
+
+    // Recomputes every row from the maintenance table (record_type MAINTENANCE with a service date)
+    @Modifying
+    @Query(value = "INSERT INTO maintenance_cost_rollup (make, model, mileage_band, month_start, total_spend, visit_count) " +
+            "SELECT c.make, c.model, FLOOR(c.mileage / ?1), DATE_FORMAT(m.service_date, '%Y-%m-01'), " +
+            "COALESCE(SUM(m.invoice_amount), 0), COUNT(*) " +
+            "FROM maintenance m JOIN car c ON m.car_id = c.id " +
+            "WHERE UPPER(m.record_type) = 'MAINTENANCE' AND m.service_date IS NOT NULL " +
+            "GROUP BY c.make, c.model, FLOOR(c.mileage / ?1), DATE_FORMAT(m.service_date, '%Y-%m-01')",
+            nativeQuery = true)
+    int rebuildFromMaintenances(int bandSize);
+
+    @Query("SELECT COALESCE(SUM(r.totalSpend), 0) FROM MaintenanceCostRollup r " +
+            "WHERE r.make = ?1 AND r.model = ?2 AND r.monthStart >= ?3 AND r.mileageBand BETWEEN ?4 AND ?5")
+    Double sumSpend(String make, String model, LocalDate fromMonth, Integer minBand, Integer maxBand);
+}
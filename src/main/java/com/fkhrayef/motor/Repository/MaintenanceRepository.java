@@ -2,15 +2,44 @@ package com.fkhrayef.motor.Repository;
 
 import com.fkhrayef.motor.Model.Car;
 import com.fkhrayef.motor.Model.Maintenance;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface MaintenanceRepository extends JpaRepository<Maintenance, Integer> {
 
     Maintenance findMaintenanceById(Integer id);
 
+    // Scalar export rows, nothing is held in the persistence context. Integer.MIN_VALUE makes MySQL stream the
+    // result row by row for this query only, the rest of the app keeps the default buffered result sets
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT m.id, m.car.id, m.recordType, m.serviceType, m.serviceDate, m.mileage, m.invoiceAmount, m.notes, m.createdAt, m.updatedAt FROM Maintenance m ORDER BY m.id")
+    Stream<Object[]> streamExportRows();
+
+    List<Maintenance> findAllByIdGreaterThanOrderByIdAsc(Integer afterId, Limit limit);
+
     List<Maintenance> findMaintenancesByCarId(Integer id);
+
+    // One row per car with MAINTENANCE records since ?1: car id, total invoice amount, number of visits
+    @Query("SELECT m.car.id, COALESCE(SUM(m.invoiceAmount), 0), COUNT(m.id) FROM Maintenance m " +
+            "WHERE UPPER(m.recordType) = 'MAINTENANCE' AND m.serviceDate >= ?1 GROUP BY m.car.id")
+    List<Object[]> sumLastYearByCar(LocalDate since);
+
+    @Query("SELECT m.car.id, COALESCE(SUM(m.invoiceAmount), 0), COUNT(m.id) FROM Maintenance m " +
+            "WHERE UPPER(m.recordType) = 'MAINTENANCE' AND m.serviceDate >= ?1 AND m.car.make = ?2 AND m.car.model = ?3 " +
+            "GROUP BY m.car.id")
+    List<Object[]> sumLastYearByCarForMakeAndModel(LocalDate since, String make, String model);
+
+    @Query("SELECT COALESCE(SUM(m.invoiceAmount), 0) FROM Maintenance m " +
+            "WHERE m.car.id = ?1 AND UPPER(m.recordType) = 'MAINTENANCE' AND m.serviceDate >= ?2")
+    Double sumMaintenanceSpendSince(Integer carId, LocalDate since);
 }
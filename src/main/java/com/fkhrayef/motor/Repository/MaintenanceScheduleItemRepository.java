@@ -0,0 +1,18 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.MaintenanceScheduleItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MaintenanceScheduleItemRepository extends JpaRepository<MaintenanceScheduleItem, Integer> {
+    List<MaintenanceScheduleItem> findAllByDocumentName(String documentName);
+
+    @Modifying
+    @Query("DELETE FROM MaintenanceScheduleItem m WHERE m.documentName = ?1")
+    int deleteAllByDocumentName(String documentName);
+}
@@ -0,0 +1,17 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.ManualIngestionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ManualIngestionJobRepository extends JpaRepository<ManualIngestionJob, Integer> {
+    ManualIngestionJob findManualIngestionJobById(Integer id);
+
+    ManualIngestionJob findFirstByDocumentNameAndStatusInOrderByIdDesc(String documentName, Collection<String> statuses);
+
+    List<ManualIngestionJob> findAllByStatusIn(Collection<String> statuses);
+}
@@ -1,12 +1,17 @@
 package com.fkhrayef.motor.Repository;
 
 import com.fkhrayef.motor.Model.Marketing;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface MarketingRepository extends JpaRepository<Marketing,Integer> {
 
     Marketing findMarketingById(Integer id);
 
+    List<Marketing> findAllByIdGreaterThanOrderByIdAsc(Integer afterId, Limit limit);
+
 }
@@ -0,0 +1,41 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.NotificationOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Integer> {
+
+    @Query("SELECT n.id FROM NotificationOutbox n WHERE n.status = 'pending' AND n.nextAttemptAt <= ?1 ORDER BY n.nextAttemptAt, n.id")
+    List<Integer> findDueIds(LocalDateTime now, Limit limit);
+
+    // Only rows still pending are taken, so two workers never get the same row
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox n SET n.status = 'sending', n.claimToken = ?2, n.claimedAt = ?3 " +
+            "WHERE n.id IN ?1 AND n.status = 'pending'")
+    int claim(Collection<Integer> ids, String claimToken, LocalDateTime claimedAt);
+
+    List<NotificationOutbox> findAllByClaimTokenAndStatus(String claimToken, String status);
+
+    // Rows left in 'sending' by a worker that died mid-delivery
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox n SET n.status = 'pending', n.claimToken = NULL " +
+            "WHERE n.status = 'sending' AND n.claimedAt < ?1")
+    int releaseStaleClaims(LocalDateTime claimedBefore);
+
+    long countByStatus(String status);
+
+    @Query("SELECT MIN(n.createdAt) FROM NotificationOutbox n WHERE n.status = 'pending'")
+    LocalDateTime findOldestPendingCreatedAt();
+}
@@ -1,12 +1,25 @@
 package com.fkhrayef.motor.Repository;
 
 import com.fkhrayef.motor.Model.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment,Integer> {
     Payment findPaymentById(Integer id);
 
     Payment findByMoyasarPaymentId(String moyasarPaymentId);
+
+    // Scalar export rows, nothing is held in the persistence context. Integer.MIN_VALUE makes MySQL stream the
+    // result row by row for this query only, the rest of the app keeps the default buffered result sets
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT p.id, u.id, s.id, p.moyasarPaymentId, p.amount, p.currency, p.paymentType, p.status, p.description, p.createdAt, p.updatedAt " +
+            "FROM Payment p LEFT JOIN p.user u LEFT JOIN p.subscription s ORDER BY p.id")
+    Stream<Object[]> streamExportRows();
 }
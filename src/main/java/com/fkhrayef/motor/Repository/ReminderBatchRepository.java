@@ -0,0 +1,10 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.Reminder;
+
+import java.util.List;
+
+public interface ReminderBatchRepository {
+    // Inserts all reminders with one JDBC batch (Hibernate cannot batch IDENTITY inserts)
+    void batchInsert(List<Reminder> reminders);
+}
@@ -0,0 +1,46 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.Reminder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ReminderBatchRepositoryImpl implements ReminderBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO reminder " +
+            "(type, due_date, message, is_sent, mileage, priority, category, car_id, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(List<Reminder> reminders) {
+        if (reminders.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, reminders, reminders.size(), (ps, reminder) -> {
+            ps.setString(1, reminder.getType());
+            ps.setDate(2, Date.valueOf(reminder.getDueDate()));
+            ps.setString(3, reminder.getMessage());
+            ps.setBoolean(4, Boolean.TRUE.equals(reminder.getIsSent()));
+            if (reminder.getMileage() != null) {
+                ps.setInt(5, reminder.getMileage());
+            } else {
+                ps.setNull(5, Types.INTEGER);
+            }
+            ps.setString(6, reminder.getPriority());
+            ps.setString(7, reminder.getCategory());
+            ps.setInt(8, reminder.getCar().getId());
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+        });
+    }
+}
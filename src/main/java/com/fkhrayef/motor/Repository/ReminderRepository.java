@@ -1,18 +1,29 @@
 package com.fkhrayef.motor.Repository;
 
-import com.fkhrayef.motor.Model.Car;
 import com.fkhrayef.motor.Model.Reminder;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface ReminderRepository extends JpaRepository<Reminder, Integer> {
+public interface ReminderRepository extends JpaRepository<Reminder, Integer>, ReminderBatchRepository {
     Reminder findReminderById(Integer id);
 
+    List<Reminder> findAllByIdGreaterThanOrderByIdAsc(Integer afterId, Limit limit);
+
     List<Reminder> findRemindersByCarId(Integer id);
-    
-    boolean existsByCarAndTypeAndDueDateAndMessage(Car car, String type, LocalDate dueDate, String message);
+
+    // (dueDate, message, mileage) of every reminder of this type on the car, used to de-duplicate in one query
+    @Query("SELECT r.dueDate, r.message, r.mileage FROM Reminder r WHERE r.car.id = ?1 AND r.type = ?2")
+    List<Object[]> findReminderKeysByCarIdAndType(Integer carId, String type);
+
+    // Reminders due in [?1, ?2] with their car and owner; those due on ?1 are included even when already sent.
+    // Range scan on (due_date, is_sent); only owners with id % ?3 == ?4 (one scheduler bucket)
+    @Query("SELECT r FROM Reminder r JOIN FETCH r.car c JOIN FETCH c.user u " +
+            "WHERE r.dueDate BETWEEN ?1 AND ?2 AND (r.dueDate = ?1 OR r.isSent = false) AND MOD(u.id, ?3) = ?4")
+    List<Reminder> findDueForNotification(LocalDate from, LocalDate to, int partitionCount, int partitionIndex);
 }
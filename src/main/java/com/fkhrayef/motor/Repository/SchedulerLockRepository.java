@@ -0,0 +1,33 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO scheduler_lock (name, locked_by, locked_at, locked_until) " +
+            "VALUES (?1, NULL, NOW(3), NOW(3))", nativeQuery = true)
+    int insertIfMissing(String name);
+
+    // Succeeds (returns 1) when the lease has run out or this node already holds it
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE scheduler_lock SET locked_by = ?2, locked_at = NOW(3), " +
+            "locked_until = TIMESTAMPADD(MICROSECOND, ?3 * 1000, NOW(3)) " +
+            "WHERE name = ?1 AND (locked_until <= NOW(3) OR locked_by = ?2)", nativeQuery = true)
+    int tryAcquire(String name, String nodeId, long lockAtMostMs);
+
+    // Keeps the lease until at least lockAtLeastMs after it was taken, so nodes whose cron fires a bit later skip the run
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE scheduler_lock SET locked_until = GREATEST(NOW(3), TIMESTAMPADD(MICROSECOND, ?3 * 1000, locked_at)) " +
+            "WHERE name = ?1 AND locked_by = ?2", nativeQuery = true)
+    int release(String name, String nodeId, long lockAtLeastMs);
+}
@@ -0,0 +1,34 @@
+package com.fkhrayef.motor.Repository;
+
+import com.fkhrayef.motor.Model.SchedulerNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface SchedulerNodeRepository extends JpaRepository<SchedulerNode, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO scheduler_node (node_id, last_heartbeat, started_at) VALUES (?1, NOW(3), NOW(3)) " +
+            "ON DUPLICATE KEY UPDATE last_heartbeat = NOW(3)", nativeQuery = true)
+    int heartbeat(String nodeId);
+
+    @Query(value = "SELECT node_id FROM scheduler_node " +
+            "WHERE last_heartbeat >= TIMESTAMPADD(MICROSECOND, -?1 * 1000, NOW(3)) ORDER BY node_id", nativeQuery = true)
+    List<String> findLiveNodeIds(long ttlMs);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM scheduler_node WHERE last_heartbeat < TIMESTAMPADD(MICROSECOND, -?1 * 1000, NOW(3))", nativeQuery = true)
+    int deleteSilentFor(long ms);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM scheduler_node WHERE node_id = ?1", nativeQuery = true)
+    int deleteNode(String nodeId);
+}
@@ -1,16 +1,30 @@
 package com.fkhrayef.motor.Repository;
 
 import com.fkhrayef.motor.Model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     User findUserById(Integer id);
 
+    // Export columns only: no password or card data, no associations. Integer.MIN_VALUE makes MySQL stream the
+    // result row by row for this query only, the rest of the app keeps the default buffered result sets
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT u.id, u.phone, u.name, u.email, u.city, u.role, u.licenseExpiry, u.createdAt, u.updatedAt FROM User u ORDER BY u.id")
+    Stream<Object[]> streamExportRows();
+
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Integer afterId, Limit limit);
+
     User findUserByEmailIgnoreCaseAndPhone(String email, String phone);
 
     User findUserByPhone(String phone); // Phone is our username!
@@ -0,0 +1,163 @@
+package com.fkhrayef.motor.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import com.fkhrayef.motor.Repository.PaymentRepository;
+import com.fkhrayef.motor.Repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streams admin tables as NDJSON or CSV straight from a forward-only result set.
+ * Rows are scalar projections written one at a time, so memory does not grow with the table size.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AdminExportService {
+
+    private final UserRepository userRepository;
+    private final CarRepository carRepository;
+    private final MaintenanceRepository maintenanceRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    // Rows between flushes to the client and clears of the persistence context
+    @Value("${admin.export.flush-every:1000}")
+    private int flushEvery = 1000;
+
+    private record Export(List<String> columns, Supplier<Stream<Object[]>> rows) {
+    }
+
+    public StreamingResponseBody export(String entity, String format) {
+        Export export = resolve(entity);
+        boolean csv = isCsv(format);
+        return out -> {
+            long started = System.nanoTime();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            long[] written = new long[1];
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<Object[]> rows = export.rows().get()) {
+                        if (csv) {
+                            writeCsvRow(writer, export.columns().toArray());
+                        }
+                        Iterator<Object[]> it = rows.iterator();
+                        while (it.hasNext()) {
+                            Object[] row = it.next();
+                            if (csv) {
+                                writeCsvRow(writer, row);
+                            } else {
+                                writeJsonRow(writer, export.columns(), row);
+                            }
+                            if (++written[0] % flushEvery == 0) {
+                                writer.flush();
+                                entityManager.clear();
+                            }
+                        }
+                        writer.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // Usually the client went away mid-download
+                log.warn("[Export] {} export aborted after {} rows: {}", entity, written[0], e.getMessage());
+                throw e.getCause();
+            }
+            log.info("[Export] {} exported {} rows as {} in {} ms", entity, written[0], csv ? "csv" : "ndjson",
+                    (System.nanoTime() - started) / 1_000_000);
+        };
+    }
+
+    public boolean isCsv(String format) {
+        if (format == null || format.equalsIgnoreCase("ndjson")) {
+            return false;
+        }
+        if (format.equalsIgnoreCase("csv")) {
+            return true;
+        }
+        throw new ApiException("Export format must be ndjson or csv");
+    }
+
+    private Export resolve(String entity) {
+        switch (entity == null ? "" : entity.toLowerCase(Locale.ROOT)) {
+            case "users":
+                return new Export(List.of("id", "phone", "name", "email", "city", "role", "licenseExpiry", "createdAt", "updatedAt"),
+                        userRepository::streamExportRows);
+            case "cars":
+                return new Export(List.of("id", "userId", "make", "model", "year", "nickname", "mileage", "vin", "purchaseDate",
+                        "registrationExpiry", "insuranceEndDate", "isAccessible", "createdAt", "updatedAt"),
+                        carRepository::streamExportRows);
+            case "maintenances":
+                return new Export(List.of("id", "carId", "recordType", "serviceType", "serviceDate", "mileage", "invoiceAmount",
+                        "notes", "createdAt", "updatedAt"),
+                        maintenanceRepository::streamExportRows);
+            case "payments":
+                return new Export(List.of("id", "userId", "subscriptionId", "moyasarPaymentId", "amount", "currency",
+                        "paymentType", "status", "description", "createdAt", "updatedAt"),
+                        paymentRepository::streamExportRows);
+            default:
+                throw new ApiException("Export entity must be one of users, cars, maintenances, payments");
+        }
+    }
+
+    private void writeJsonRow(Writer writer, List<String> columns, Object[] row) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            line.put(columns.get(i), row[i]);
+        }
+        writer.write(objectMapper.writeValueAsString(line));
+        writer.write('\n');
+    }
+
+    private static void writeCsvRow(Writer writer, Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(row[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote when the value holds a separator, quote or line break, doubling inner quotes
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
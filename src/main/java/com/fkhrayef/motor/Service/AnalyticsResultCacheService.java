@@ -0,0 +1,203 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.DTOout.AnalyticsCacheStatsResponse;
+import com.fkhrayef.motor.Event.CarChangedEvent;
+import com.fkhrayef.motor.Event.MaintenanceChangedEvent;
+import com.fkhrayef.motor.Event.UserCityChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of the make/model statistics returned by CarService, keyed by (operation, make, model,
+ * normalized filters, day). Entries of a make/model are dropped whenever one of its cars or maintenances is written,
+ * and every city-filtered entry when an owner changes city.
+ */
+@Service
+public class AnalyticsResultCacheService {
+
+    // The operation whose results are filtered on the owner's city
+    public static final String TYPICAL_MILEAGE = "typical-mileage";
+
+    @Value("${analytics.result-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${analytics.result-cache.max-entries:2000}")
+    private int maxEntries = 2000;
+
+    // Upper bound on staleness for writes that bypass the services and so publish no event (e.g. manual SQL fixes)
+    @Value("${analytics.result-cache.ttl-ms:600000}")
+    private long ttlMs = 600_000L;
+
+    // Access-ordered map: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, CachedResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Bumped on every invalidation so a result computed before a write is not stored after it
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> operationGenerations = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong servedAgeTotalMs = new AtomicLong();
+    private final AtomicLong servedAgeMaxMs = new AtomicLong();
+
+    private record CachedResult(String operation, String makeModel, Object value, long storedAt) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getOrCompute(String operation, String make, String model, List<?> filters, Supplier<T> compute) {
+        if (!enabled) {
+            return compute.get();
+        }
+
+        String makeModel = makeModel(make, model);
+        String key = key(operation, makeModel, filters);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedResult cached = entries.get(key);
+            if (cached != null && now - cached.storedAt() > ttlMs) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                cached = null;
+            }
+            if (cached != null) {
+                hits.incrementAndGet();
+                long age = now - cached.storedAt();
+                servedAgeTotalMs.addAndGet(age);
+                servedAgeMaxMs.accumulateAndGet(age, Math::max);
+                return (T) cached.value();
+            }
+            misses.incrementAndGet();
+        }
+
+        long generation = generation(makeModel).get();
+        long operationGeneration = operationGeneration(operation).get();
+        T value = compute.get();
+        synchronized (entries) {
+            if (generation(makeModel).get() == generation && operationGeneration(operation).get() == operationGeneration) {
+                entries.put(key, new CachedResult(operation, makeModel, value, System.currentTimeMillis()));
+                Iterator<CachedResult> eldest = entries.values().iterator();
+                while (entries.size() > maxEntries && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        invalidate(event.getMake(), event.getModel());
+        if (event.getPreviousMake() != null && event.getPreviousModel() != null) {
+            invalidate(event.getPreviousMake(), event.getPreviousModel());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        invalidate(event.getMake(), event.getModel());
+    }
+
+    // The owner's cars may span many make/models, so drop every city-filtered result rather than look them up
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCityChanged(UserCityChangedEvent event) {
+        invalidateOperation(TYPICAL_MILEAGE);
+    }
+
+    public void invalidateOperation(String operation) {
+        synchronized (entries) {
+            operationGeneration(operation).incrementAndGet();
+            Iterator<Map.Entry<String, CachedResult>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().getValue().operation().equals(operation)) {
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public void invalidate(String make, String model) {
+        String makeModel = makeModel(make, model);
+        synchronized (entries) {
+            generation(makeModel).incrementAndGet();
+            Iterator<Map.Entry<String, CachedResult>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().getValue().makeModel().equals(makeModel)) {
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public AnalyticsCacheStatsResponse getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+
+        AnalyticsCacheStatsResponse stats = new AnalyticsCacheStatsResponse();
+        stats.setEnabled(enabled);
+        long now = System.currentTimeMillis();
+        long oldest = 0;
+        synchronized (entries) {
+            stats.setSize(entries.size());
+            for (CachedResult cached : entries.values()) {
+                oldest = Math.max(oldest, now - cached.storedAt());
+            }
+        }
+        stats.setMaxEntries(maxEntries);
+        stats.setTtlMs(ttlMs);
+        stats.setHits(hitCount);
+        stats.setMisses(missCount);
+        stats.setHitRatio(lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.setAverageServedAgeMs(hitCount == 0 ? 0.0 : (double) servedAgeTotalMs.get() / hitCount);
+        stats.setMaxServedAgeMs(servedAgeMaxMs.get());
+        stats.setOldestEntryAgeMs(oldest);
+        stats.setEvictions(evictions.get());
+        stats.setExpirations(expirations.get());
+        stats.setInvalidations(invalidations.get());
+        return stats;
+    }
+
+    private AtomicLong generation(String makeModel) {
+        return generations.computeIfAbsent(makeModel, k -> new AtomicLong());
+    }
+
+    private AtomicLong operationGeneration(String operation) {
+        return operationGenerations.computeIfAbsent(operation, k -> new AtomicLong());
+    }
+
+    private static String makeModel(String make, String model) {
+        return make + '|' + model;
+    }
+
+    // Results depend on today's date (one-year window, ownership years), so the day is part of the key
+    private static String key(String operation, String makeModel, List<?> filters) {
+        StringBuilder key = new StringBuilder(operation).append('\u0000').append(makeModel);
+        for (Object filter : filters) {
+            key.append('\u0000');
+            if (filter instanceof String s) {
+                key.append(s.trim().toLowerCase(Locale.ROOT));
+            } else if (filter != null) {
+                key.append(filter);
+            }
+        }
+        return key.append('\u0000').append(LocalDate.now()).toString();
+    }
+}
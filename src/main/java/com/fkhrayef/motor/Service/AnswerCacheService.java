@@ -0,0 +1,167 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.DTOout.AnswerCacheStatsResponse;
+import com.fkhrayef.motor.DTOout.QuestionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of RAG answers keyed by (document name, normalized question).
+ * Owners of the same year/make/model share one manual, so repeated questions skip the /ask round trip.
+ * Responses are copied in and out, so a caller changing its answer cannot change what other callers are served.
+ */
+@Service
+public class AnswerCacheService {
+
+    @Value("${rag.answer-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${rag.answer-cache.max-entries:1000}")
+    private int maxEntries = 1000;
+
+    @Value("${rag.answer-cache.ttl-ms:21600000}")
+    private long ttlMs = 21_600_000L;
+
+    // Plans that always get a fresh answer from the RAG backend
+    @Value("${rag.answer-cache.bypass-plans:}")
+    private List<String> bypassPlans = List.of();
+
+    // Access-ordered map: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, CachedAnswer> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record CachedAnswer(String documentName, QuestionResponse response, long storedAt) {
+    }
+
+    public boolean isBypassed(String planType) {
+        if (!enabled) {
+            return true;
+        }
+        return planType != null && bypassPlans.stream().anyMatch(p -> p.trim().equalsIgnoreCase(planType));
+    }
+
+    public QuestionResponse get(String documentName, String question) {
+        String key = key(documentName, question);
+        synchronized (entries) {
+            CachedAnswer cached = entries.get(key);
+            if (cached == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (isExpired(cached)) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return copyOf(cached.response());
+        }
+    }
+
+    public void put(String documentName, String question, QuestionResponse response) {
+        // Do not remember empty answers, the next caller should retry the backend
+        if (response == null || response.getAnswer() == null || response.getAnswer().isBlank()) {
+            return;
+        }
+        String key = key(documentName, question);
+        synchronized (entries) {
+            entries.put(key, new CachedAnswer(documentName, copyOf(response), System.currentTimeMillis()));
+            Iterator<CachedAnswer> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    // Called when a manual is (re)processed so stale answers are not served
+    public void invalidateDocument(String documentName) {
+        synchronized (entries) {
+            Iterator<Map.Entry<String, CachedAnswer>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().getValue().documentName().equals(documentName)) {
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public AnswerCacheStatsResponse getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+
+        AnswerCacheStatsResponse stats = new AnswerCacheStatsResponse();
+        stats.setEnabled(enabled);
+        synchronized (entries) {
+            stats.setSize(entries.size());
+        }
+        stats.setMaxEntries(maxEntries);
+        stats.setTtlMs(ttlMs);
+        stats.setHits(hitCount);
+        stats.setMisses(missCount);
+        stats.setHitRatio(lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.setEvictions(evictions.get());
+        stats.setExpirations(expirations.get());
+        stats.setInvalidations(invalidations.get());
+        stats.setBypassPlans(bypassPlans);
+        return stats;
+    }
+
+    private static QuestionResponse copyOf(QuestionResponse response) {
+        return new QuestionResponse(
+                response.getAnswer(),
+                copyOfMaps(response.getContext()),
+                copyOfMaps(response.getSources()),
+                response.getMetadata() == null ? null : new LinkedHashMap<>(response.getMetadata()),
+                response.getDocument_name(),
+                response.getSource_pages() == null ? null : new ArrayList<>(response.getSource_pages()));
+    }
+
+    private static List<Map<String, Object>> copyOfMaps(List<Map<String, Object>> maps) {
+        if (maps == null) {
+            return null;
+        }
+        List<Map<String, Object>> copy = new ArrayList<>(maps.size());
+        for (Map<String, Object> map : maps) {
+            copy.add(map == null ? null : new LinkedHashMap<>(map));
+        }
+        return copy;
+    }
+
+    private boolean isExpired(CachedAnswer cached) {
+        return System.currentTimeMillis() - cached.storedAt() > ttlMs;
+    }
+
+    private String key(String documentName, String question) {
+        return documentName + '\u0000' + normalizeQuestion(question);
+    }
+
+    /**
+     * Lower-cases, collapses whitespace and drops trailing punctuation so
+     * "Oil capacity?" and "  oil   capacity " share one entry.
+     */
+    public static String normalizeQuestion(String question) {
+        if (question == null) {
+            return "";
+        }
+        String normalized = question.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return normalized.replaceAll("[\\s?!.,;:؟،]+$", "");
+    }
+}
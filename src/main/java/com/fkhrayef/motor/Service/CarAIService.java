@@ -1,23 +1,38 @@
 package com.fkhrayef.motor.Service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fkhrayef.motor.Api.ApiException;
 import com.fkhrayef.motor.DTOout.*;
 import com.fkhrayef.motor.Model.Car;
 import com.fkhrayef.motor.Model.User;
 import com.fkhrayef.motor.Repository.CarRepository;
 import com.fkhrayef.motor.Repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @Service
+@Slf4j
 public class CarAIService {
 
     @Autowired
     private RAGService ragService;
 
     @Autowired
-    private S3Service s3Service;
+    private ReactiveRAGService reactiveRAGService;
+
+    @Autowired
+    private ManualIngestionService manualIngestionService;
 
     @Autowired
     private CarRepository carRepository;
@@ -25,7 +40,19 @@ public class CarAIService {
     @Autowired
     private UserRepository userRepository;
 
-    private void validateSubscription(Integer userId) {
+    @Autowired
+    private AnswerCacheService answerCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${rag.batch.parallelism:4}")
+    private int batchParallelism = 4;
+
+    @Value("${rag.batch.max-questions:20}")
+    private int batchMaxQuestions = 20;
+
+    private User validateSubscription(Integer userId) {
         User user = userRepository.findUserById(userId);
         if (user == null) {
             throw new ApiException("User not found");
@@ -41,9 +68,10 @@ public class CarAIService {
         if ((!"pro".equalsIgnoreCase(planType) && !"enterprise".equalsIgnoreCase(planType))) {
             throw new ApiException("AI features require an active subscription. Please upgrade to Pro or Enterprise plan.");
         }
+        return user;
     }
 
-    public ManualUploadResponse uploadManual(Integer userId, Integer carId, MultipartFile file) {
+    public ManualIngestionJobResponse uploadManual(Integer userId, Integer carId, MultipartFile file) {
         // Validate user has active subscription
         validateSubscription(userId);
 
@@ -74,11 +102,6 @@ public class CarAIService {
                 car.getMake().toLowerCase().replace(" ", "-"),
                 car.getModel().toLowerCase().replace(" ", "-"));
 
-        // Check if manual already exists in S3
-        if (s3Service.catalogFileExists(catalogPath)) {
-            throw new ApiException("Manual for this car already exists: " + catalogPath);
-        }
-
         // Check if document already exists in RAG system
         String documentName = generateDocumentName(car);
 
@@ -86,33 +109,135 @@ public class CarAIService {
             throw new ApiException("Manual for this car already exists in the system: " + documentName);
         }
 
-        // Upload to S3
-        String s3Url;
-        try {
-            s3Url = s3Service.uploadCatalogFile(file, catalogPath);
-        } catch (Exception e) {
-            throw new ApiException("Failed to upload file: " + e.getMessage());
+        // S3 upload and RAG processing run in the background, the caller polls the job
+        return manualIngestionService.submit(userId, carId, documentName, catalogPath, file);
+    }
+
+    public Mono<QuestionResponse> askQuestion(Integer userId, Integer carId, String question) {
+        // Validate user has active subscription
+        User user = validateSubscription(userId);
+        validateQuestion(question);
+        String documentName = resolveQuestionDocument(userId, carId);
+
+        // Same manual + same question => reuse the answer unless the plan opts out of caching
+        boolean useCache = !answerCache.isBypassed(user.getSubscription().getPlanType());
+        return answer(documentName, question, useCache);
+    }
+
+    /**
+     * Answers several questions about one car: the checks run once, then the questions go to the
+     * RAG backend concurrently (at most batchParallelism at a time). Results keep the request order and
+     * a failed question does not fail the others.
+     */
+    public Mono<BatchQuestionResponse> askQuestions(Integer userId, Integer carId, List<String> questions) {
+        // Validate user has active subscription
+        User user = validateSubscription(userId);
+
+        if (questions == null || questions.isEmpty()) {
+            throw new ApiException("Questions cannot be empty");
+        }
+        if (questions.size() > batchMaxQuestions) {
+            throw new ApiException("A batch can contain at most " + batchMaxQuestions + " questions");
         }
+        questions.forEach(this::validateQuestion);
+
+        String documentName = resolveQuestionDocument(userId, carId);
+        boolean useCache = !answerCache.isBypassed(user.getSubscription().getPlanType());
+
+        return Flux.range(0, questions.size())
+                .flatMapSequential(index -> {
+                    String question = questions.get(index);
+                    return answer(documentName, question, useCache)
+                            .map(response -> new BatchAnswerResult(index, question, "success", response, null))
+                            .onErrorResume(e -> Mono.just(new BatchAnswerResult(index, question, "failed", null, e.getMessage())));
+                }, batchParallelism)
+                .collectList()
+                .map(results -> {
+                    int answered = (int) results.stream().filter(r -> "success".equals(r.getStatus())).count();
+                    return new BatchQuestionResponse(documentName, results.size(), answered, results.size() - answered, results);
+                });
+    }
 
-        // Process document in RAG system
-        boolean success = ragService.processDocument(s3Url, documentName);
-        if (!success) {
-            throw new ApiException("Failed to process document in RAG system");
+    private Mono<QuestionResponse> answer(String documentName, String question, boolean useCache) {
+        if (useCache) {
+            QuestionResponse cached = answerCache.get(documentName, question);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
         }
 
-        ManualUploadResponse response = new ManualUploadResponse();
-        response.setStatus("success");
-        response.setMessage("Manual uploaded and processed successfully");
-        response.setDocumentName(documentName);
-        response.setS3Url(s3Url);
-        response.setCarId(carId.toString());
-        return response;
+        return reactiveRAGService.askQuestion(question, documentName)
+                .doOnNext(response -> {
+                    if (useCache) {
+                        answerCache.put(documentName, question, response);
+                    }
+                });
     }
 
-    public QuestionResponse askQuestion(Integer userId, Integer carId, String question) {
+    /**
+     * Streams the answer as "token" events while the RAG backend generates it,
+     * then a final "sources" event with the source pages.
+     */
+    public Flux<ServerSentEvent<Object>> askQuestionStream(Integer userId, Integer carId, String question) {
         // Validate user has active subscription
-        validateSubscription(userId);
+        User user = validateSubscription(userId);
+        validateQuestion(question);
+        String documentName = resolveQuestionDocument(userId, carId);
+
+        boolean useCache = !answerCache.isBypassed(user.getSubscription().getPlanType());
+        if (useCache) {
+            QuestionResponse cached = answerCache.get(documentName, question);
+            if (cached != null) {
+                return Flux.just(tokenEvent(cached.getAnswer()),
+                        sourcesEvent(documentName, cached.getSource_pages()));
+            }
+        }
 
+        StringBuilder answer = new StringBuilder();
+        List<Map<String, Object>> sources = new ArrayList<>();
+
+        Flux<ServerSentEvent<Object>> tokens = reactiveRAGService.askQuestionStream(question, documentName)
+                .concatMap(event -> {
+                    String data = event.data();
+                    if (data == null) {
+                        return Flux.empty();
+                    }
+                    if ("sources".equals(event.event())) {
+                        sources.addAll(parseSources(data));
+                        return Flux.empty();
+                    }
+                    if (event.event() == null || "token".equals(event.event())) {
+                        answer.append(data);
+                        return Flux.just(tokenEvent(data));
+                    }
+                    // Backend bookkeeping events (e.g. "done") are not relayed
+                    return Flux.empty();
+                });
+
+        Mono<ServerSentEvent<Object>> finish = Mono.fromSupplier(() -> {
+            QuestionResponse response = new QuestionResponse(answer.toString(), null, sources, null, documentName, null);
+            response.extractSourcePages();
+            if (useCache) {
+                answerCache.put(documentName, question, response);
+            }
+            return sourcesEvent(documentName, response.getSource_pages());
+        });
+
+        // Headers are already sent once streaming starts, so failures are reported as an "error" event
+        return tokens.concatWith(finish)
+                .onErrorResume(e -> {
+                    log.warn("[RAG] Answer stream failed for {}: {}", documentName, e.getMessage());
+                    return Flux.just(ServerSentEvent.builder((Object) e.getMessage()).event("error").build());
+                });
+    }
+
+    private void validateQuestion(String question) {
+        if (question == null || question.trim().isEmpty()) {
+            throw new ApiException("Question must not be empty");
+        }
+    }
+
+    private String resolveQuestionDocument(Integer userId, Integer carId) {
         // Get car details from database
         Car car = carRepository.findCarById(carId);
         if (car == null) {
@@ -128,10 +253,6 @@ public class CarAIService {
             throw new ApiException("This car is not accessible on your current plan.");
         }
 
-        if (question == null || question.trim().isEmpty()) {
-            throw new ApiException("Question must not be empty");
-        }
-
         // Generate document name from car details
         String documentName = generateDocumentName(car);
 
@@ -139,9 +260,30 @@ public class CarAIService {
         if (!ragService.documentExists(documentName)) {
             throw new ApiException("Manual for this car is not available. Please upload the manual first.");
         }
+        return documentName;
+    }
 
-        QuestionResponse response = ragService.askQuestion(question, documentName);
-        return response;
+    private List<Map<String, Object>> parseSources(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<List<Map<String, Object>>>() {
+            });
+        } catch (Exception e) {
+            log.warn("[RAG] Ignoring malformed sources event: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private ServerSentEvent<Object> tokenEvent(String chunk) {
+        return ServerSentEvent.builder((Object) chunk).event("token").build();
+    }
+
+    private ServerSentEvent<Object> sourcesEvent(String documentName, List<String> sourcePages) {
+        AnswerSourcesEvent payload = new AnswerSourcesEvent(documentName, sourcePages != null ? sourcePages : List.of());
+        return ServerSentEvent.builder((Object) payload).event("sources").build();
+    }
+
+    public ManualIngestionJobResponse getIngestionJob(Integer userId, Integer jobId) {
+        return manualIngestionService.getJob(userId, jobId);
     }
 
     public CarDocumentInfoResponse getCarDocumentInfo(Integer userId, Integer carId) {
@@ -0,0 +1,68 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.Event.CarAccessChangedEvent;
+import com.fkhrayef.motor.Repository.CarRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Keeps car.is_accessible in line with the owner's plan: the oldest cars up to the plan limit stay accessible.
+ * Recomputed for the affected users when a subscription or car ownership changes, and reconciled nightly
+ * for everyone (subscriptions that lapse without a write, or events lost to a crash).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CarAccessService {
+
+    private final CarRepository carRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final SchedulerLockService schedulerLock;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarAccessChanged(CarAccessChangedEvent event) {
+        // Runs after the publishing transaction committed, so the update needs a transaction of its own
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            newTransaction.execute(status -> recompute(event.getUserIds()));
+        } catch (Exception e) {
+            // The nightly reconcile picks these users up
+            log.error("Failed to recompute car access for users {}: {}", event.getUserIds(), e.getMessage());
+        }
+    }
+
+    public int recompute(Collection<Integer> userIds) {
+        Set<Integer> ids = new LinkedHashSet<>(userIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return carRepository.updateAccessibilityForUsers(ids);
+    }
+
+    @Scheduled(cron = "${cars.access.reconcile-cron:0 0 2 * * *}")
+    public void nightlyReconcile() {
+        schedulerLock.runExclusive("car-access-reconcile", this::reconcileAll);
+    }
+
+    public void reconcileAll() {
+        long started = System.nanoTime();
+        try {
+            int changed = carRepository.updateAccessibilityForAllUsers();
+            log.info("[Scheduler] Car access reconcile: {} cars changed in {} ms", changed, (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            log.error("[Scheduler] Car access reconcile failed: {}", e.getMessage());
+        }
+    }
+}
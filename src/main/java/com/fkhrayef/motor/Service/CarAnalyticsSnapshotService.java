@@ -0,0 +1,375 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.DTOout.AnalyticsSnapshotStatsResponse;
+import com.fkhrayef.motor.Event.CarChangedEvent;
+import com.fkhrayef.motor.Event.MaintenanceChangedEvent;
+import com.fkhrayef.motor.Event.UserCityChangedEvent;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Read-only, column-oriented copy of the per-car data behind the make/model statistics.
+ * Rebuilt periodically from two queries and swapped in atomically; statistics then run as loops over primitive arrays.
+ * Writes re-read only the affected make/model, and the result cache for it is dropped once the new columns are in.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CarAnalyticsSnapshotService {
+
+    // City id of cars without an owner city
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private final CarRepository carRepository;
+    private final MaintenanceRepository maintenanceRepository;
+    private final AnalyticsResultCacheService analyticsCache;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    // Guards swaps of current; make/models refreshed during a full rebuild are re-read after it
+    private final Object lock = new Object();
+    private boolean rebuilding;
+    private final Set<MakeModel> changedDuringRebuild = new LinkedHashSet<>();
+
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong rebuildFailures = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    /**
+     * Average and number of cars behind it
+     */
+    public record Aggregate(double average, long count) {
+    }
+
+    // One make/model: index i in every array is the same car
+    private record Columns(int[] mileage, int[] purchaseEpochDay, int[] cityId, double[] lastYearSpend, int[] visitCount) {
+        int size() {
+            return mileage.length;
+        }
+
+        long bytes() {
+            return (long) size() * (Integer.BYTES * 4 + Double.BYTES);
+        }
+    }
+
+    private record MakeModel(String make, String model) {
+    }
+
+    private record Snapshot(Map<String, Columns> byMakeModel, Map<String, Integer> cityIds, Instant builtAt,
+                            long buildMillis, int carCount, long bytes) {
+    }
+
+    public boolean isLoaded() {
+        return current.get() != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialBuild() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.snapshot.refresh-interval-ms:300000}", initialDelayString = "${analytics.snapshot.refresh-interval-ms:300000}")
+    public void rebuild() {
+        synchronized (lock) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+
+        long started = System.nanoTime();
+        Snapshot snapshot;
+        try {
+            LocalDate today = LocalDate.now();
+            Map<String, Integer> cityIds = new HashMap<>();
+            Map<String, Columns> byMakeModel = build(maintenanceRepository.sumLastYearByCar(today.minusYears(1)),
+                    carRepository.findAnalyticsRows(), cityIds);
+
+            int carCount = 0;
+            long bytes = 0;
+            for (Columns columns : byMakeModel.values()) {
+                carCount += columns.size();
+                bytes += columns.bytes();
+            }
+            long buildMillis = (System.nanoTime() - started) / 1_000_000;
+            snapshot = new Snapshot(byMakeModel, cityIds, Instant.now(), buildMillis, carCount, bytes);
+        } catch (Exception e) {
+            synchronized (lock) {
+                rebuilding = false;
+            }
+            rebuildFailures.incrementAndGet();
+            log.error("[Scheduler] Analytics snapshot rebuild failed: {}", e.getMessage());
+            return;
+        }
+
+        List<MakeModel> replay;
+        synchronized (lock) {
+            current.set(snapshot);
+            rebuilding = false;
+            replay = new ArrayList<>(changedDuringRebuild);
+            changedDuringRebuild.clear();
+        }
+        rebuilds.incrementAndGet();
+        // Make/models written while the rows were being read may have been loaded in their old state
+        replay.forEach(m -> refresh(m.make(), m.model()));
+        log.info("[Scheduler] Analytics snapshot rebuilt: {} cars, {} make/models, {} bytes in {} ms",
+                snapshot.carCount(), snapshot.byMakeModel().size(), snapshot.bytes(), snapshot.buildMillis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        refresh(event.getMake(), event.getModel());
+        if (event.getPreviousMake() != null && event.getPreviousModel() != null
+                && !key(event.getPreviousMake(), event.getPreviousModel()).equals(key(event.getMake(), event.getModel()))) {
+            refresh(event.getPreviousMake(), event.getPreviousModel());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        refresh(event.getMake(), event.getModel());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCityChanged(UserCityChangedEvent event) {
+        for (Object[] row : carRepository.findMakeModelsByUserId(event.getUserId())) {
+            refresh((String) row[0], (String) row[1]);
+        }
+    }
+
+    /**
+     * Re-reads one make/model into the snapshot, then drops its cached results so they are recomputed from it
+     */
+    public void refresh(String make, String model) {
+        if (make == null || model == null) {
+            return;
+        }
+        try {
+            synchronized (lock) {
+                if (rebuilding) {
+                    changedDuringRebuild.add(new MakeModel(make, model));
+                }
+                Snapshot old = current.get();
+                if (old != null) {
+                    // Read under the lock so two refreshes of the same make/model cannot swap in out of order
+                    Map<String, Integer> cityIds = new HashMap<>(old.cityIds());
+                    Columns columns = build(maintenanceRepository.sumLastYearByCarForMakeAndModel(LocalDate.now().minusYears(1), make, model),
+                            carRepository.findAnalyticsRowsByMakeAndModel(make, model), cityIds).get(key(make, model));
+
+                    Map<String, Columns> byMakeModel = new HashMap<>(old.byMakeModel());
+                    Columns previous = columns == null ? byMakeModel.remove(key(make, model)) : byMakeModel.put(key(make, model), columns);
+                    int carCount = old.carCount() - (previous == null ? 0 : previous.size()) + (columns == null ? 0 : columns.size());
+                    long bytes = old.bytes() - (previous == null ? 0 : previous.bytes()) + (columns == null ? 0 : columns.bytes());
+                    current.set(new Snapshot(byMakeModel, cityIds, old.builtAt(), old.buildMillis(), carCount, bytes));
+                    refreshes.incrementAndGet();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Analytics snapshot refresh failed for {} {}: {}", make, model, e.getMessage());
+        } finally {
+            // Also after a failure: results then fall back to what the snapshot holds, never to an older cached value
+            analyticsCache.invalidate(make, model);
+        }
+    }
+
+    // Groups car rows into columns per make/model, assigning ids to new cities in cityIds
+    private Map<String, Columns> build(List<Object[]> spendRows, List<Object[]> carRows, Map<String, Integer> cityIds) {
+        // Last-year MAINTENANCE spend and visits per car, aggregated by the database
+        Map<Integer, double[]> perCar = new HashMap<>();
+        for (Object[] row : spendRows) {
+            perCar.put((Integer) row[0], new double[]{((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue()});
+        }
+
+        Map<String, ColumnsBuilder> builders = new HashMap<>();
+        for (Object[] row : carRows) {
+            Integer carId = (Integer) row[0];
+            String key = key((String) row[1], (String) row[2]);
+            int mileage = (Integer) row[3];
+            LocalDate purchaseDate = (LocalDate) row[4];
+            String city = (String) row[5];
+
+            int cityId = city == null ? NO_VALUE
+                    : cityIds.computeIfAbsent(city.trim().toLowerCase(Locale.ROOT), c -> cityIds.size());
+            double[] spendAndVisits = perCar.getOrDefault(carId, new double[2]);
+
+            builders.computeIfAbsent(key, k -> new ColumnsBuilder()).add(
+                    mileage,
+                    (int) purchaseDate.toEpochDay(),
+                    cityId,
+                    spendAndVisits[0],
+                    (int) spendAndVisits[1]);
+        }
+
+        Map<String, Columns> byMakeModel = new HashMap<>();
+        builders.forEach((key, builder) -> byMakeModel.put(key, builder.build()));
+        return byMakeModel;
+    }
+
+    /**
+     * Average last-year maintenance spend; null when no snapshot is loaded yet
+     */
+    public Aggregate averageYearlySpend(String make, String model, Integer minMileage, Integer maxMileage) {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            return null;
+        }
+        Columns c = snapshot.byMakeModel().get(key(make, model));
+        if (c == null) {
+            return new Aggregate(0, 0);
+        }
+
+        int min = minMileage == null ? Integer.MIN_VALUE : minMileage;
+        int max = maxMileage == null ? Integer.MAX_VALUE : maxMileage;
+        double sum = 0;
+        long count = 0;
+        for (int i = 0; i < c.size(); i++) {
+            int mileage = c.mileage()[i];
+            if (mileage < min || mileage > max) {
+                continue;
+            }
+            sum += c.lastYearSpend()[i];
+            count++;
+        }
+        return new Aggregate(count == 0 ? 0 : sum / count, count);
+    }
+
+    /**
+     * Average last-year visit count; age is current year minus purchase year
+     */
+    public Aggregate averageYearlyVisits(String make, String model, Integer minAge, Integer maxAge) {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            return null;
+        }
+        Columns c = snapshot.byMakeModel().get(key(make, model));
+        if (c == null) {
+            return new Aggregate(0, 0);
+        }
+
+        int year = LocalDate.now().getYear();
+        long from = maxAge == null ? Long.MIN_VALUE : LocalDate.of(year - maxAge, 1, 1).toEpochDay();
+        long to = minAge == null ? Long.MAX_VALUE : LocalDate.of(year - minAge, 12, 31).toEpochDay();
+        long visits = 0;
+        long count = 0;
+        for (int i = 0; i < c.size(); i++) {
+            int purchase = c.purchaseEpochDay()[i];
+            if (purchase < from || purchase > to) {
+                continue;
+            }
+            visits += c.visitCount()[i];
+            count++;
+        }
+        return new Aggregate(count == 0 ? 0 : (double) visits / count, count);
+    }
+
+    /**
+     * Average km per year of ownership (at least one year), optionally for owners in one city
+     */
+    public Aggregate averageMileagePerYear(String make, String model, String city) {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            return null;
+        }
+        Columns c = snapshot.byMakeModel().get(key(make, model));
+        if (c == null) {
+            return new Aggregate(0, 0);
+        }
+
+        int cityId = NO_VALUE;
+        if (city != null) {
+            Integer id = snapshot.cityIds().get(city.trim().toLowerCase(Locale.ROOT));
+            if (id == null) {
+                return new Aggregate(0, 0);
+            }
+            cityId = id;
+        }
+
+        long today = LocalDate.now().toEpochDay();
+        double sum = 0;
+        long count = 0;
+        for (int i = 0; i < c.size(); i++) {
+            int mileage = c.mileage()[i];
+            int purchase = c.purchaseEpochDay()[i];
+            if (city != null && c.cityId()[i] != cityId) {
+                continue;
+            }
+            double yearsOwned = Math.max(1.0, (today - purchase) / 365.25);
+            sum += mileage / yearsOwned;
+            count++;
+        }
+        return new Aggregate(count == 0 ? 0 : sum / count, count);
+    }
+
+    public AnalyticsSnapshotStatsResponse getStats() {
+        Snapshot snapshot = current.get();
+        AnalyticsSnapshotStatsResponse stats = new AnalyticsSnapshotStatsResponse();
+        stats.setLoaded(snapshot != null);
+        stats.setRebuilds(rebuilds.get());
+        stats.setRebuildFailures(rebuildFailures.get());
+        stats.setRefreshes(refreshes.get());
+        if (snapshot != null) {
+            stats.setBuiltAt(snapshot.builtAt().toString());
+            stats.setAgeMs(Instant.now().toEpochMilli() - snapshot.builtAt().toEpochMilli());
+            stats.setLastBuildMillis(snapshot.buildMillis());
+            stats.setCarCount(snapshot.carCount());
+            stats.setMakeModelCount(snapshot.byMakeModel().size());
+            stats.setCityCount(snapshot.cityIds().size());
+            stats.setMemoryBytes(snapshot.bytes());
+        }
+        return stats;
+    }
+
+    private static String key(String make, String model) {
+        return make + '|' + model;
+    }
+
+    // Growable primitive columns used only while building
+    private static class ColumnsBuilder {
+        private int size;
+        private int[] mileage = new int[16];
+        private int[] purchaseEpochDay = new int[16];
+        private int[] cityId = new int[16];
+        private double[] lastYearSpend = new double[16];
+        private int[] visitCount = new int[16];
+
+        void add(int mileageValue, int purchase, int city, double spend, int visits) {
+            if (size == mileage.length) {
+                int capacity = size * 2;
+                mileage = Arrays.copyOf(mileage, capacity);
+                purchaseEpochDay = Arrays.copyOf(purchaseEpochDay, capacity);
+                cityId = Arrays.copyOf(cityId, capacity);
+                lastYearSpend = Arrays.copyOf(lastYearSpend, capacity);
+                visitCount = Arrays.copyOf(visitCount, capacity);
+            }
+            mileage[size] = mileageValue;
+            purchaseEpochDay[size] = purchase;
+            cityId[size] = city;
+            lastYearSpend[size] = spend;
+            visitCount[size] = visits;
+            size++;
+        }
+
+        Columns build() {
+            return new Columns(Arrays.copyOf(mileage, size), Arrays.copyOf(purchaseEpochDay, size), Arrays.copyOf(cityId, size),
+                    Arrays.copyOf(lastYearSpend, size), Arrays.copyOf(visitCount, size));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.DTOout.CarDistributionResponse;
+import com.fkhrayef.motor.DTOout.DistributionSummary;
+import com.fkhrayef.motor.DTOout.HistogramBin;
+import com.fkhrayef.motor.Event.CarChangedEvent;
+import com.fkhrayef.motor.Event.MaintenanceChangedEvent;
+import com.fkhrayef.motor.Event.UserCityChangedEvent;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import com.fkhrayef.motor.Util.QuantileSketch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * p10/p50/p90 and histograms of mileage per year and yearly maintenance cost per make/model/city.
+ * Every make/model/city keeps one quantile sketch per metric; car and maintenance changes move that car's value
+ * between sketches, and a nightly rebuild corrects the drift from time passing (ownership years, the one-year window).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CarDistributionService {
+
+    private static final String UNKNOWN_CITY = "";
+
+    private final CarRepository carRepository;
+    private final MaintenanceRepository maintenanceRepository;
+
+    // Quantiles are exact to within this relative error
+    @Value("${analytics.distribution.relative-accuracy:0.01}")
+    private double relativeAccuracy = 0.01;
+
+    @Value("${analytics.distribution.mileage-bin-km:5000}")
+    private double mileageBinKm = 5000;
+
+    @Value("${analytics.distribution.cost-bin-sar:500}")
+    private double costBinSar = 500;
+
+    @Value("${analytics.distribution.max-bins:20}")
+    private int maxBins = 20;
+
+    private final Object lock = new Object();
+    // makeModel -> city -> sketches
+    private Map<String, Map<String, Sketches>> sketches = new HashMap<>();
+    // What each car currently contributes, so it can be taken out again when the car changes
+    private Map<Integer, Contribution> contributions = new HashMap<>();
+    private boolean rebuilding;
+    private final Set<Integer> changedDuringRebuild = new HashSet<>();
+
+    private static class Sketches {
+        final QuantileSketch mileagePerYear;
+        final QuantileSketch yearlyCost;
+
+        Sketches(QuantileSketch template) {
+            this.mileagePerYear = template.emptyCopy();
+            this.yearlyCost = template.emptyCopy();
+        }
+    }
+
+    private record Contribution(String makeModel, String city, double mileagePerYear, double yearlyCost) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialBuild() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${analytics.distribution.rebuild-cron:0 45 3 * * *}")
+    public void rebuild() {
+        synchronized (lock) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+
+        Map<String, Map<String, Sketches>> newSketches = new HashMap<>();
+        Map<Integer, Contribution> newContributions = new HashMap<>();
+        try {
+            LocalDate today = LocalDate.now();
+            Map<Integer, Double> spendByCar = new HashMap<>();
+            for (Object[] row : maintenanceRepository.sumLastYearByCar(today.minusYears(1))) {
+                spendByCar.put((Integer) row[0], ((Number) row[1]).doubleValue());
+            }
+            for (Object[] row : carRepository.findAnalyticsRows()) {
+                Integer carId = (Integer) row[0];
+                Contribution contribution = toContribution(row, spendByCar.getOrDefault(carId, 0.0), today);
+                newContributions.put(carId, contribution);
+                apply(newSketches, contribution, true);
+            }
+        } catch (Exception e) {
+            synchronized (lock) {
+                rebuilding = false;
+            }
+            log.error("[Scheduler] Distribution sketch rebuild failed: {}", e.getMessage());
+            return;
+        }
+
+        List<Integer> replay;
+        synchronized (lock) {
+            sketches = newSketches;
+            contributions = newContributions;
+            rebuilding = false;
+            replay = new ArrayList<>(changedDuringRebuild);
+            changedDuringRebuild.clear();
+        }
+        // Cars written while the rows were being read may have been loaded in their old state
+        replay.forEach(this::refreshCar);
+        log.info("[Scheduler] Distribution sketches rebuilt for {} cars", newContributions.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.isDeleted()) {
+            update(event.getCarId(), null);
+        } else {
+            refreshCar(event.getCarId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        refreshCar(event.getCarId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCityChanged(UserCityChangedEvent event) {
+        carRepository.findIdsByUserId(event.getUserId()).forEach(this::refreshCar);
+    }
+
+    public void refreshCar(Integer carId) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = carRepository.findAnalyticsRowsById(carId);
+        Contribution updated = null;
+        if (!rows.isEmpty()) {
+            Double spend = maintenanceRepository.sumMaintenanceSpendSince(carId, today.minusYears(1));
+            updated = toContribution(rows.get(0), spend == null ? 0.0 : spend, today);
+        }
+        update(carId, updated);
+    }
+
+    // Replaces the car's value in the sketches; null removes it
+    private void update(Integer carId, Contribution updated) {
+        synchronized (lock) {
+            if (rebuilding) {
+                changedDuringRebuild.add(carId);
+            }
+            Contribution previous = updated == null ? contributions.remove(carId) : contributions.put(carId, updated);
+            if (previous != null) {
+                apply(sketches, previous, false);
+            }
+            if (updated != null) {
+                apply(sketches, updated, true);
+            }
+        }
+    }
+
+    /**
+     * Distribution for a make/model, optionally for owners in one city (otherwise the city sketches are merged)
+     */
+    public CarDistributionResponse getDistribution(String make, String model, String city) {
+        QuantileSketch template = newSketch();
+        QuantileSketch mileage = template.emptyCopy();
+        QuantileSketch cost = template.emptyCopy();
+
+        synchronized (lock) {
+            Map<String, Sketches> byCity = sketches.getOrDefault(key(make, model), Map.of());
+            if (city == null) {
+                for (Sketches s : byCity.values()) {
+                    mileage.merge(s.mileagePerYear);
+                    cost.merge(s.yearlyCost);
+                }
+            } else {
+                Sketches s = byCity.get(normalizeCity(city));
+                if (s != null) {
+                    mileage.merge(s.mileagePerYear);
+                    cost.merge(s.yearlyCost);
+                }
+            }
+        }
+
+        return new CarDistributionResponse(make, model, city,
+                summarize(mileage, "km/year", mileageBinKm),
+                summarize(cost, "SAR/year", costBinSar));
+    }
+
+    private DistributionSummary summarize(QuantileSketch sketch, String unit, double binWidth) {
+        List<HistogramBin> histogram = new ArrayList<>();
+        if (sketch.getCount() > 0) {
+            long[] bins = sketch.histogram(binWidth, maxBins);
+            for (int i = 0; i < bins.length; i++) {
+                Double to = i == maxBins - 1 ? null : (i + 1) * binWidth;
+                histogram.add(new HistogramBin(i * binWidth, to, bins[i]));
+            }
+        }
+        return new DistributionSummary(unit, sketch.getCount(),
+                round(sketch.quantile(0.1)), round(sketch.quantile(0.5)), round(sketch.quantile(0.9)), histogram);
+    }
+
+    private void apply(Map<String, Map<String, Sketches>> target, Contribution c, boolean add) {
+        Sketches s = target.computeIfAbsent(c.makeModel(), k -> new HashMap<>())
+                .computeIfAbsent(c.city(), k -> new Sketches(newSketch()));
+        if (add) {
+            s.mileagePerYear.add(c.mileagePerYear());
+            s.yearlyCost.add(c.yearlyCost());
+        } else {
+            s.mileagePerYear.remove(c.mileagePerYear());
+            s.yearlyCost.remove(c.yearlyCost());
+        }
+    }
+
+    // row: id, make, model, mileage, purchaseDate, city
+    private Contribution toContribution(Object[] row, double yearlyCost, LocalDate today) {
+        int mileage = (Integer) row[3];
+        LocalDate purchaseDate = (LocalDate) row[4];
+        String city = (String) row[5];
+
+        double yearsOwned = Math.max(1.0, ChronoUnit.DAYS.between(purchaseDate, today) / 365.25);
+        return new Contribution(key((String) row[1], (String) row[2]), city == null ? UNKNOWN_CITY : normalizeCity(city),
+                mileage / yearsOwned, yearlyCost);
+    }
+
+    private QuantileSketch newSketch() {
+        // Covers up to 10M km/year or SAR/year
+        return new QuantileSketch(relativeAccuracy, 10_000_000);
+    }
+
+    private static String key(String make, String model) {
+        return make + '|' + model;
+    }
+
+    private static String normalizeCity(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -2,6 +2,14 @@ package com.fkhrayef.motor.Service;
 
 import com.fkhrayef.motor.Api.ApiException;
 import com.fkhrayef.motor.DTOin.CarDTO;
+import com.fkhrayef.motor.DTOout.AnalyticsCacheStatsResponse;
+import com.fkhrayef.motor.DTOout.AnalyticsSnapshotStatsResponse;
+import com.fkhrayef.motor.DTOout.CarDistributionResponse;
+import com.fkhrayef.motor.DTOout.CarSummaryDTO;
+import com.fkhrayef.motor.DTOout.CostForecastResponse;
+import com.fkhrayef.motor.DTOout.KeysetPage;
+import com.fkhrayef.motor.Event.CarAccessChangedEvent;
+import com.fkhrayef.motor.Event.CarChangedEvent;
 import com.fkhrayef.motor.Model.Car;
 import com.fkhrayef.motor.Model.Subscription;
 import com.fkhrayef.motor.Model.User;
@@ -9,14 +17,11 @@ import com.fkhrayef.motor.Repository.CarRepository;
 import com.fkhrayef.motor.Repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -35,9 +40,19 @@ public class CarService {
     private final CarRepository carRepository;
     private final UserRepository userRepository;
     private final S3Service s3Service;
-
-    public List<Car> getAllCars() {
-        return carRepository.findAll();
+    private final MaintenanceCostRollupService costRollupService;
+    private final CarAnalyticsSnapshotService analyticsSnapshot;
+    private final CarDistributionService distributionService;
+    private final AnalyticsResultCacheService analyticsCache;
+    private final MaintenanceCostForecastService forecastService;
+    private final KeysetPaginationService pagination;
+    private final CarAccessService carAccessService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public KeysetPage<Car> getAllCars(String cursor, Integer size) {
+        int pageSize = pagination.pageSize(size);
+        List<Car> rows = carRepository.findAllByIdGreaterThanOrderByIdAsc(pagination.afterId(cursor), pagination.fetchLimit(pageSize));
+        return pagination.page(rows, pageSize, Car::getId);
     }
 
     public void addCar(Integer userId, CarDTO carDTO) {
@@ -64,6 +79,8 @@ public class CarService {
 
 
         carRepository.save(car);
+        eventPublisher.publishEvent(new CarChangedEvent(car.getId(), car.getMake(), car.getModel(), car.getMake(), car.getModel(), false));
+        eventPublisher.publishEvent(new CarAccessChangedEvent(List.of(userId)));
     }
 
     public void updateCar(Integer userId, Integer id, CarDTO carDTO) {
@@ -85,6 +102,10 @@ public class CarService {
 
         validateCarMakeAndModel(carDTO);
 
+        String previousMake = car.getMake();
+        String previousModel = car.getModel();
+        Integer previousMileage = car.getMileage();
+
         car.setMake(carDTO.getMake());
         car.setModel(carDTO.getModel());
         car.setYear(carDTO.getYear());
@@ -94,6 +115,8 @@ public class CarService {
         car.setPurchaseDate(carDTO.getPurchaseDate());
 
         carRepository.save(car);
+        costRollupService.moveCar(car, previousMake, previousModel, previousMileage);
+        eventPublisher.publishEvent(new CarChangedEvent(car.getId(), car.getMake(), car.getModel(), previousMake, previousModel, false));
     }
 
     public void updateMileage(Integer userId, Integer carId, Integer newMileage) {
@@ -120,6 +143,8 @@ public class CarService {
 
         car.setMileage(newMileage);
         carRepository.save(car);
+        costRollupService.moveCar(car, car.getMake(), car.getModel(), current);
+        eventPublisher.publishEvent(new CarChangedEvent(car.getId(), car.getMake(), car.getModel(), car.getMake(), car.getModel(), false));
     }
 
     public void deleteCar(Integer userId, Integer id) {
@@ -147,17 +172,19 @@ public class CarService {
             deleteRegistration(userId, id);
         }
 
-
+        costRollupService.removeCar(car);
         carRepository.delete(car);
+        eventPublisher.publishEvent(new CarChangedEvent(car.getId(), car.getMake(), car.getModel(), car.getMake(), car.getModel(), true));
+        eventPublisher.publishEvent(new CarAccessChangedEvent(List.of(userId)));
     }
 
-    public List<Car> getCarsByUserId(Integer userId){
+    public List<CarSummaryDTO> getCarsByUserId(Integer userId){
         User user = userRepository.findUserById(userId);
         if (user == null){
             throw new ApiException("UNAUTHENTICATED USER");
         }
 
-        return carRepository.findCarsByUserId(user.getId());
+        return carRepository.findCarSummariesByUserId(user.getId(), LocalDate.now());
     }
 
     // Registration file management
@@ -433,29 +460,24 @@ public class CarService {
                     throw new ApiException("minMileage cannot be greater than maxMileage");
         }
 
-        LocalDate oneYearAgo = LocalDate.now().minusYears(1);
-
-        List<Car> cars = carRepository.findByMakeAndModel(make, model).stream()
-                .filter(c -> minMileage == null || (c.getMileage() != null && c.getMileage() >= minMileage))
-                .filter(c -> maxMileage == null || (c.getMileage() != null && c.getMileage() <= maxMileage))
-                .toList();
-
+        return analyticsCache.getOrCompute("maintenance-cost", make, model, List.of(nullable(minMileage), nullable(maxMileage)),
+                () -> computeMaintenanceCostOneYear(make, model, minMileage, maxMileage));
+    }
 
-        List<Double> costs = new ArrayList<>();
-        for (Car c : cars) {
-            double spend = c.getMaintenances() == null ? 0.0 :
-                    c.getMaintenances().stream()
-                            .filter(m -> "MAINTENANCE".equalsIgnoreCase(m.getRecordType()))
-                            .filter(m -> m.getServiceDate() != null && !m.getServiceDate().isBefore(oneYearAgo))
-                            .mapToDouble(m -> m.getInvoiceAmount() == null ? 0.0 : m.getInvoiceAmount())
-                            .sum();
-            costs.add(spend);
+    private String computeMaintenanceCostOneYear(String make, String model, Integer minMileage, Integer maxMileage) {
+        CarAnalyticsSnapshotService.Aggregate fromSnapshot = analyticsSnapshot.averageYearlySpend(make, model, minMileage, maxMileage);
+        if (fromSnapshot != null) {
+            if (fromSnapshot.count() == 0) return "Maintenance cost in last year: 0 SAR (0 cars)";
+            return String.format("Maintenance cost in last year: %.2f SAR (based on %d cars)", fromSnapshot.average(), fromSnapshot.count());
         }
 
-        if (costs.isEmpty()) return "Maintenance cost in last year: 0 SAR (0 cars)";
+        LocalDate oneYearAgo = LocalDate.now().minusYears(1);
+
+        // Snapshot not built yet: read from the pre-aggregated rollup (months since oneYearAgo's month, mileage in bands)
+        long count = costRollupService.countCars(make, model, minMileage, maxMileage);
+        if (count == 0) return "Maintenance cost in last year: 0 SAR (0 cars)";
 
-        double avg = costs.stream().mapToDouble(d -> d).average().orElse(0.0);
-        long count = costs.size();
+        double avg = costRollupService.sumSpendSince(make, model, oneYearAgo, minMileage, maxMileage) / count;
 
         return String.format("Maintenance cost in last year: %.2f SAR (based on %d cars)", avg, count);
     }
@@ -470,35 +492,25 @@ public class CarService {
             throw new ApiException("Unsupported make/model");
         }
 
-        LocalDate today = LocalDate.now();
-        LocalDate oneYearAgo = today.minusYears(1);
-
-        List<Car> cars = carRepository.findAll().stream()
-                .filter(c -> make.equals(c.getMake()) && model.equals(c.getModel()))
-                .filter(c -> {
-                    if (c.getPurchaseDate() == null) return true;
-                    int age = today.getYear() - c.getPurchaseDate().getYear();
-                    return (minAge == null || age >= minAge) && (maxAge == null || age <= maxAge);
-                })
-                .toList();
-
-        List<Long> yearlyVisits = new ArrayList<>();
-        for (Car c : cars) {
-            if (c.getMaintenances() == null) continue;
-
-            long visits = c.getMaintenances().stream()
-                    .filter(m -> "MAINTENANCE".equalsIgnoreCase(m.getRecordType()))
-                    .filter(m -> m.getServiceDate() != null && !m.getServiceDate().isBefore(oneYearAgo))
-                    .count();
+        return analyticsCache.getOrCompute("visit-frequency", make, model, List.of(nullable(minAge), nullable(maxAge)),
+                () -> computeVisitFrequency(make, model, minAge, maxAge));
+    }
 
-            yearlyVisits.add(visits);
+    private String computeVisitFrequency(String make, String model, Integer minAge, Integer maxAge) {
+        double avg;
+        long count;
+        CarAnalyticsSnapshotService.Aggregate fromSnapshot = analyticsSnapshot.averageYearlyVisits(make, model, minAge, maxAge);
+        if (fromSnapshot != null) {
+            if (fromSnapshot.count() == 0) return "No data for this car";
+            avg = fromSnapshot.average();
+            count = fromSnapshot.count();
+        } else {
+            List<Long> yearlyVisits = countVisitsPerCar(make, model, minAge, maxAge);
+            if (yearlyVisits.isEmpty()) return "No data for this car";
+            avg = yearlyVisits.stream().mapToLong(v -> v).average().orElse(0);
+            count = yearlyVisits.size();
         }
 
-        if (yearlyVisits.isEmpty()) return "No data for this car";
-
-        double avg = yearlyVisits.stream().mapToLong(v -> v).average().orElse(0);
-        long count = yearlyVisits.size();
-
         if (avg == 0) {
             return String.format("On average, cars had no maintenance visits in the last year (based on %d cars)", count);
         }
@@ -507,6 +519,17 @@ public class CarService {
         return String.format("On average, cars are serviced once every ~%.0f years (based on %d cars)", yearsBetween, count);
     }
 
+    private List<Long> countVisitsPerCar(String make, String model, Integer minAge, Integer maxAge) {
+        LocalDate today = LocalDate.now();
+        LocalDate oneYearAgo = today.minusYears(1);
+
+        // age = current year - purchase year, turned into a purchase date range the index can use
+        LocalDate purchasedFrom = maxAge == null ? LocalDate.of(1000, 1, 1) : LocalDate.of(today.getYear() - maxAge, 1, 1);
+        LocalDate purchasedTo = minAge == null ? LocalDate.of(9999, 12, 31) : LocalDate.of(today.getYear() - minAge, 12, 31);
+
+        return carRepository.countVisitsPerCar(make, model, oneYearAgo, purchasedFrom, purchasedTo);
+    }
+
     public String getTypicalMileagePerYear(Integer userId, String make, String model, String city) {
         User user = userRepository.findUserById(userId);
         if (user == null) {
@@ -517,21 +540,26 @@ public class CarService {
             throw new ApiException("Unsupported make/model");
         }
 
-        LocalDate today = LocalDate.now();
+        return analyticsCache.getOrCompute(AnalyticsResultCacheService.TYPICAL_MILEAGE, make, model, List.of(nullable(city)),
+                () -> computeTypicalMileagePerYear(make, model, city));
+    }
 
-        List<Car> cars = carRepository.findByMakeAndModel(make, model).stream()
-                .filter(c -> city == null ||
-                        (c.getUser() != null && c.getUser().getCity() != null && city.equalsIgnoreCase(c.getUser().getCity())))
-                .toList();
+    private String computeTypicalMileagePerYear(String make, String model, String city) {
+        CarAnalyticsSnapshotService.Aggregate fromSnapshot = analyticsSnapshot.averageMileagePerYear(make, model, city);
+        if (fromSnapshot != null) {
+            if (fromSnapshot.count() == 0) return "No mileage data for this car";
+            return String.format("Typical mileage per year: %.0f km (based on %d cars)", fromSnapshot.average(), fromSnapshot.count());
+        }
 
-        List<Double> mileagePerYear = new ArrayList<>();
-        for (Car c : cars) {
-            if (c.getMileage() == null || c.getPurchaseDate() == null) continue;
+        LocalDate today = LocalDate.now();
 
-            long daysOwned = java.time.temporal.ChronoUnit.DAYS.between(c.getPurchaseDate(), today);
+        // Snapshot not built yet: (mileage, purchaseDate) of the make/model's cars, optionally for owners in one city
+        List<Double> mileagePerYear = new ArrayList<>();
+        for (Object[] row : carRepository.findMileageRows(make, model, city)) {
+            long daysOwned = java.time.temporal.ChronoUnit.DAYS.between((LocalDate) row[1], today);
             double yearsOwned = Math.max(1.0, daysOwned / 365.25);
 
-            mileagePerYear.add(c.getMileage() / yearsOwned);
+            mileagePerYear.add((Integer) row[0] / yearsOwned);
         }
 
         if (mileagePerYear.isEmpty()) return "No mileage data for this car";
@@ -542,6 +570,43 @@ public class CarService {
         return String.format("Typical mileage per year: %.0f km (based on %d cars)", avg, count);
     }
 
+    public CarDistributionResponse getDistribution(Integer userId, String make, String model, String city) {
+        User user = userRepository.findUserById(userId);
+        if (user == null) {
+            throw new ApiException("UNAUTHENTICATED USER");
+        }
+
+        if (!MAKE_MODELS.containsKey(make) || !MAKE_MODELS.get(make).contains(model)) {
+            throw new ApiException("Unsupported make/model");
+        }
+
+        return distributionService.getDistribution(make, model, city);
+    }
+
+    public CostForecastResponse getCostForecast(Integer userId, Integer carId) {
+        Car car = carRepository.findCarByIdAndUserId(carId, userId);
+        if (car == null) {
+            throw new ApiException("Car not found or does not belong to this user");
+        }
+
+        ensureAccessible(car);
+
+        return forecastService.getForecast(carId);
+    }
+
+    // List.of rejects nulls, absent filters are keyed as ""
+    private static Object nullable(Object filter) {
+        return filter == null ? "" : filter;
+    }
+
+    public AnalyticsCacheStatsResponse getAnalyticsCacheStats() {
+        return analyticsCache.getStats();
+    }
+
+    public AnalyticsSnapshotStatsResponse getAnalyticsSnapshotStats() {
+        return analyticsSnapshot.getStats();
+    }
+
     public long getCarsNumbers(Integer userId){
         return carRepository.countByUserId(userId);
     }
@@ -570,44 +635,10 @@ public class CarService {
     }
 
     public void enforceCarAccess(Integer userId) {
-        User u = userRepository.findById(userId).orElseThrow(() -> new ApiException("User not found"));
-        Subscription s = u.getSubscription();
-
-        boolean active = s != null
-                && "active".equalsIgnoreCase(s.getStatus())
-                && (s.getEndDate() == null || s.getEndDate().isAfter(LocalDateTime.now()));
-
-        int limit = Integer.MAX_VALUE;
-        if (!active) limit = 1;
-        else {
-            String plan = s.getPlanType() == null ? "" : s.getPlanType().toLowerCase();
-            if ("pro".equals(plan)) limit = 5;
-            else if ("enterprise".equals(plan)) limit = Integer.MAX_VALUE;
-            else limit = 1;
+        if (userRepository.findUserById(userId) == null) {
+            throw new ApiException("User not found");
         }
-
-        List<Car> cars = carRepository.findByUserIdOrderByCreatedAtAsc(userId);
-        for (int i = 0; i < cars.size(); i++) cars.get(i).setIsAccessible(i < limit);
-        carRepository.saveAll(cars);
+        carAccessService.recompute(List.of(userId));
     }
 
-    //  @Scheduled(cron = "0 0 2 * * ?", zone = "Asia/Riyadh")
-    @Scheduled(cron = "0 * * * * *") // Every minute (for testing)
-    public void enforceAllUsersAccessPaged() {
-        log.info("[Scheduler] Starting enforceAllUsersAccessPaged...");
-        int page = 0;
-        Page<User> slice;
-        do {
-            slice = userRepository.findAll(PageRequest.of(page, 500));
-            log.info("[Scheduler] Enforcing access for {} users (page {})", slice.getNumberOfElements(), page);
-            for (User u : slice) {
-                enforceCarAccess(u.getId());
-            }
-            page++;
-        } while (slice.hasNext());
-        log.info("[Scheduler] Completed enforceAllUsersAccessPaged.");
-    }
-
-
-
 }
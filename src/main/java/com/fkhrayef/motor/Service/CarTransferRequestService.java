@@ -2,6 +2,9 @@ package com.fkhrayef.motor.Service;
 
 import com.fkhrayef.motor.Api.ApiException;
 import com.fkhrayef.motor.DTOin.CarTransferResponseDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
+import com.fkhrayef.motor.Event.CarAccessChangedEvent;
+import com.fkhrayef.motor.Event.CarChangedEvent;
 import com.fkhrayef.motor.Model.Car;
 import com.fkhrayef.motor.Model.CarTransferRequest;
 import com.fkhrayef.motor.Model.User;
@@ -10,6 +13,7 @@ import com.fkhrayef.motor.Repository.CarTransferRequestRepository;
 import com.fkhrayef.motor.Repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,6 +27,8 @@ public class CarTransferRequestService {
     private final CarTransferRequestRepository transferRepo;
     private final CarRepository carRepository;
     private final UserRepository userRepository;
+    private final KeysetPaginationService pagination;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String PENDING = "pending";
     private static final String ACCEPTED = "accepted";
@@ -121,6 +127,9 @@ public class CarTransferRequestService {
 
         car.setUser(r.getToUser());
         carRepository.save(car);
+        eventPublisher.publishEvent(new CarAccessChangedEvent(List.of(r.getFromUser().getId(), r.getToUser().getId())));
+        // The new owner's city applies to the car from now on
+        eventPublisher.publishEvent(new CarChangedEvent(car.getId(), car.getMake(), car.getModel(), car.getMake(), car.getModel(), false));
 
         r.setStatus(ACCEPTED);
         transferRepo.save(r);
@@ -206,8 +215,11 @@ public class CarTransferRequestService {
         return transferRepo.findAllByCar_Id(carId).stream().map(this::toDto).toList();
     }
 
-    public List<CarTransferResponseDTO> getByStatus(String status) {
-        return transferRepo.findAllByStatus(status).stream().map(this::toDto).toList();
+    public KeysetPage<CarTransferResponseDTO> getByStatus(String status, String cursor, Integer size) {
+        int pageSize = pagination.pageSize(size);
+        List<CarTransferRequest> rows = transferRepo.findAllByStatusAndIdGreaterThanOrderByIdAsc(status, pagination.afterId(cursor), pagination.fetchLimit(pageSize));
+        KeysetPage<CarTransferRequest> page = pagination.page(rows, pageSize, CarTransferRequest::getId);
+        return new KeysetPage<>(page.getItems().stream().map(this::toDto).toList(), page.getNextCursor());
     }
 
 }
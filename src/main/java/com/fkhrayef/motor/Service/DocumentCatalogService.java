@@ -0,0 +1,106 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.DTOout.DocumentCatalogStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local copy of the document names known to the RAG backend.
+ * Existence checks are answered from a hashed set instead of fetching /documents/info every time.
+ * The set is refreshed by RAGService (scheduled + on-miss) and updated in place after processDocument.
+ */
+@Service
+public class DocumentCatalogService {
+
+    // Replaced wholesale on refresh, mutated in place when a document is processed
+    private volatile Set<String> documentNames = ConcurrentHashMap.newKeySet();
+
+    private volatile Instant lastRefreshedAt;
+    private volatile Instant lastRefreshAttemptAt;
+    private volatile String lastRefreshError;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    // Minimum time between two synchronous refreshes triggered by a lookup miss
+    @Value("${rag.catalog.miss-refresh-interval-ms:15000}")
+    private long missRefreshIntervalMs;
+
+    public boolean contains(String documentName) {
+        return documentName != null && documentNames.contains(documentName);
+    }
+
+    public void recordLookup(boolean found) {
+        if (found) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+    }
+
+    public boolean isLoaded() {
+        return lastRefreshedAt != null;
+    }
+
+    // A miss is only trusted when the catalog was synced recently, otherwise the caller re-syncs once
+    public boolean isRefreshDueOnMiss() {
+        Instant lastAttempt = lastRefreshAttemptAt;
+        return lastAttempt == null
+                || Duration.between(lastAttempt, Instant.now()).toMillis() >= missRefreshIntervalMs;
+    }
+
+    public void markRefreshAttempt() {
+        lastRefreshAttemptAt = Instant.now();
+    }
+
+    public void replaceAll(Collection<String> names) {
+        Set<String> fresh = ConcurrentHashMap.newKeySet();
+        if (names != null) {
+            fresh.addAll(names);
+        }
+        documentNames = fresh;
+        lastRefreshedAt = Instant.now();
+        lastRefreshError = null;
+        refreshes.incrementAndGet();
+    }
+
+    public void recordRefreshFailure(String error) {
+        lastRefreshError = error;
+        refreshFailures.incrementAndGet();
+    }
+
+    public void add(String documentName) {
+        if (documentName != null) {
+            documentNames.add(documentName);
+        }
+    }
+
+    public DocumentCatalogStatsResponse getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        Instant refreshedAt = lastRefreshedAt;
+
+        DocumentCatalogStatsResponse stats = new DocumentCatalogStatsResponse();
+        stats.setLoaded(refreshedAt != null);
+        stats.setDocumentCount(documentNames.size());
+        stats.setLastRefreshedAt(refreshedAt != null ? refreshedAt.toString() : null);
+        stats.setStalenessMs(refreshedAt != null ? Duration.between(refreshedAt, Instant.now()).toMillis() : null);
+        stats.setHits(hitCount);
+        stats.setMisses(missCount);
+        stats.setHitRatio(lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.setRefreshes(refreshes.get());
+        stats.setRefreshFailures(refreshFailures.get());
+        stats.setLastRefreshError(lastRefreshError);
+        return stats;
+    }
+}
@@ -21,15 +21,21 @@ public class ExpirySchedulerService {
 
     private final UserRepository userRepository;
     private final CarRepository carRepository;
-    private final EmailService emailService;
+    private final NotificationOutboxService notificationOutbox;
+    private final SchedulerLockService schedulerLock;
 
     // كل يوم 9 صباحًا
     @Scheduled(cron = "0 0 9 * * *")
     public void sendLicenseExpiryAlerts() {
+        schedulerLock.runPartitioned("license-expiry-alerts", this::sendLicenseExpiryAlertsFor);
+    }
+
+    private void sendLicenseExpiryAlertsFor(SchedulerLockService.Partition partition) {
         LocalDate target = LocalDate.now().plusMonths(1); // بعد شهر
         List<User> users = userRepository.findByLicenseExpiry(target);
 
         for (User u : users) {
+            if (!partition.owns(u.getId())) continue;
             try {
                 if (u.getEmail() == null || u.getEmail().isBlank()) continue;
                 if (u.getLicenseExpiry() == null) continue;
@@ -37,10 +43,10 @@ public class ExpirySchedulerService {
                 String subject = "تنبيه: انتهاء رخصتك بعد شهر";
                 String html = buildLicenseHtml(u);
 
-                emailService.sendEmailHtml(u.getEmail(), subject, html);
+                notificationOutbox.enqueueEmailHtml(u.getEmail(), subject, html);
 
             } catch (Exception e) {
-                log.warn("Failed to send license expiry email: userId={}, email={}",
+                log.warn("Failed to queue license expiry email: userId={}, email={}",
                         u.getId(), u.getEmail(), e);
             }
         }
@@ -49,6 +55,10 @@ public class ExpirySchedulerService {
     // كل يوم 9:10 صباحًا
     @Scheduled(cron = "0 10 9 * * *")
     public void sendCarExpiryAlerts() {
+        schedulerLock.runPartitioned("car-expiry-alerts", this::sendCarExpiryAlertsFor);
+    }
+
+    private void sendCarExpiryAlertsFor(SchedulerLockService.Partition partition) {
         LocalDate target = LocalDate.now().plusMonths(1); // بعد شهر
 
         // الاستمارة
@@ -56,17 +66,17 @@ public class ExpirySchedulerService {
         for (Car c : regCars) {
             try {
                 if (c.getRegistrationExpiry() == null) continue;
-                if (c.getUser() == null) continue;
+                if (c.getUser() == null || !partition.owns(c.getUser().getId())) continue;
                 User u = c.getUser();
                 if (u.getEmail() == null || u.getEmail().isBlank()) continue;
 
                 String subject = "تنبيه: انتهاء استمارة سيارتك بعد شهر";
                 String html = buildRegistrationHtml(c, u);
 
-                emailService.sendEmailHtml(u.getEmail(), subject, html);
+                notificationOutbox.enqueueEmailHtml(u.getEmail(), subject, html);
 
             } catch (Exception e) {
-                log.warn("Failed to send registration expiry email: carId={}, userId={}, email={}",
+                log.warn("Failed to queue registration expiry email: carId={}, userId={}, email={}",
                         c.getId(), c.getUser()!=null?c.getUser().getId():null,
                         c.getUser()!=null?c.getUser().getEmail():null, e);
             }
@@ -77,17 +87,17 @@ public class ExpirySchedulerService {
         for (Car c : insCars) {
             try {
                 if (c.getInsuranceEndDate() == null) continue;
-                if (c.getUser() == null) continue;
+                if (c.getUser() == null || !partition.owns(c.getUser().getId())) continue;
                 User u = c.getUser();
                 if (u.getEmail() == null || u.getEmail().isBlank()) continue;
 
                 String subject = "تنبيه: انتهاء تأمين سيارتك بعد شهر";
                 String html = buildInsuranceHtml(c, u);
 
-                emailService.sendEmailHtml(u.getEmail(), subject, html);
+                notificationOutbox.enqueueEmailHtml(u.getEmail(), subject, html);
 
             } catch (Exception e) {
-                log.warn("Failed to send insurance expiry email: carId={}, userId={}, email={}",
+                log.warn("Failed to queue insurance expiry email: carId={}, userId={}, email={}",
                         c.getId(), c.getUser()!=null?c.getUser().getId():null,
                         c.getUser()!=null?c.getUser().getEmail():null, e);
             }
@@ -0,0 +1,219 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.DTOout.FanOutStatsResponse;
+import com.fkhrayef.motor.Util.TokenBucket;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a job's calls to external providers concurrently, with a concurrency cap and a rate limit per provider.
+ * Each provider's items are dispatched by their own loop, so a slow or throttled provider does not hold back
+ * the others. Tasks run on virtual threads when the JVM has them (Java 21+), otherwise on a fixed pool.
+ */
+@Service
+@Slf4j
+public class FanOutService {
+
+    @Value("${fanout.pool-size:16}")
+    private int poolSize = 16;
+
+    @Value("${fanout.virtual-threads:true}")
+    private boolean useVirtualThreads = true;
+
+    @Value("${fanout.providers.whatsapp.concurrency:4}")
+    private int whatsappConcurrency = 4;
+
+    @Value("${fanout.providers.whatsapp.rate-per-second:10}")
+    private double whatsappRatePerSecond = 10;
+
+    @Value("${fanout.providers.email.concurrency:2}")
+    private int emailConcurrency = 2;
+
+    @Value("${fanout.providers.email.rate-per-second:5}")
+    private double emailRatePerSecond = 5;
+
+    // Providers without their own settings
+    @Value("${fanout.providers.default.concurrency:2}")
+    private int defaultConcurrency = 2;
+
+    private ExecutorService taskExecutor;
+    private ExecutorService dispatchExecutor;
+    private boolean virtualThreads;
+
+    private final Map<String, ProviderLimit> providers = new ConcurrentHashMap<>();
+    private final Map<String, FanOutStatsResponse> lastRuns = new ConcurrentHashMap<>();
+
+    private record ProviderLimit(Semaphore permits, TokenBucket rate) {
+    }
+
+    /**
+     * Outcome of one fan-out
+     */
+    public record Result(int tasks, int succeeded, int failed, long durationMs) {
+        public double tasksPerSecond() {
+            return durationMs == 0 ? tasks : tasks * 1000.0 / durationMs;
+        }
+    }
+
+    /**
+     * Runs task for every item and waits for all of them. Failures are counted and logged, not rethrown.
+     */
+    public <T> Result run(String jobName, Collection<T> items, Function<T, String> providerOf, Consumer<T> task) {
+        long started = System.nanoTime();
+        if (items.isEmpty()) {
+            return new Result(0, 0, 0, 0);
+        }
+
+        Map<String, List<T>> byProvider = new LinkedHashMap<>();
+        for (T item : items) {
+            byProvider.computeIfAbsent(providerOf.apply(item), p -> new ArrayList<>()).add(item);
+        }
+
+        CountDownLatch done = new CountDownLatch(items.size());
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        for (Map.Entry<String, List<T>> entry : byProvider.entrySet()) {
+            ProviderLimit limit = limitFor(entry.getKey());
+            dispatchExecutor().execute(() -> dispatch(jobName, entry.getValue(), limit, task, done, succeeded, failed));
+        }
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[FanOut] {} interrupted while waiting for {} tasks", jobName, done.getCount());
+        }
+
+        Result result = new Result(items.size(), succeeded.get(), failed.get(), (System.nanoTime() - started) / 1_000_000);
+        record(jobName, result);
+        log.info("[FanOut] {}: {} tasks ({} failed) in {} ms, {} tasks/s", jobName, result.tasks(), result.failed(),
+                result.durationMs(), String.format("%.1f", result.tasksPerSecond()));
+        return result;
+    }
+
+    // Takes a permit and a token before each submit, so at most `concurrency` tasks of the provider are running
+    private <T> void dispatch(String jobName, List<T> items, ProviderLimit limit, Consumer<T> task,
+                              CountDownLatch done, AtomicInteger succeeded, AtomicInteger failed) {
+        int submitted = 0;
+        try {
+            for (T item : items) {
+                limit.permits().acquire();
+                try {
+                    limit.rate().acquire();
+                    taskExecutor().execute(() -> {
+                        try {
+                            task.accept(item);
+                            succeeded.incrementAndGet();
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            log.warn("[FanOut] {} task failed: {}", jobName, e.getMessage());
+                        } finally {
+                            limit.permits().release();
+                            done.countDown();
+                        }
+                    });
+                } catch (InterruptedException | RuntimeException e) {
+                    limit.permits().release();
+                    throw e;
+                }
+                submitted++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(jobName, items.size() - submitted, done, failed);
+        } catch (RuntimeException e) {
+            abandon(jobName, items.size() - submitted, done, failed);
+        }
+    }
+
+    private void abandon(String jobName, int remaining, CountDownLatch done, AtomicInteger failed) {
+        log.error("[FanOut] {} stopped dispatching, {} tasks not run", jobName, remaining);
+        for (int i = 0; i < remaining; i++) {
+            failed.incrementAndGet();
+            done.countDown();
+        }
+    }
+
+    private ProviderLimit limitFor(String provider) {
+        return providers.computeIfAbsent(provider, p -> switch (p) {
+            case "whatsapp" -> new ProviderLimit(new Semaphore(whatsappConcurrency), new TokenBucket(whatsappRatePerSecond, whatsappConcurrency));
+            case "email" -> new ProviderLimit(new Semaphore(emailConcurrency), new TokenBucket(emailRatePerSecond, emailConcurrency));
+            default -> new ProviderLimit(new Semaphore(defaultConcurrency), new TokenBucket(0, defaultConcurrency));
+        });
+    }
+
+    private void record(String jobName, Result result) {
+        lastRuns.compute(jobName, (name, previous) -> new FanOutStatsResponse(name, Instant.now().toString(),
+                result.tasks(), result.succeeded(), result.failed(), result.durationMs(), result.tasksPerSecond(),
+                (previous == null ? 0 : previous.getTotalRuns()) + 1,
+                (previous == null ? 0 : previous.getTotalTasks()) + result.tasks(),
+                virtualThreads));
+    }
+
+    public List<FanOutStatsResponse> getStats() {
+        return new ArrayList<>(lastRuns.values());
+    }
+
+    private ExecutorService taskExecutor() {
+        start();
+        return taskExecutor;
+    }
+
+    // One dispatch loop per provider, kept apart from the tasks so a dispatcher never waits behind them in a queue
+    private ExecutorService dispatchExecutor() {
+        start();
+        return dispatchExecutor;
+    }
+
+    private synchronized void start() {
+        if (taskExecutor != null) {
+            return;
+        }
+        taskExecutor = useVirtualThreads ? newVirtualThreadExecutor() : null;
+        virtualThreads = taskExecutor != null;
+        if (taskExecutor == null) {
+            taskExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new CustomizableThreadFactory("fan-out-"));
+        }
+        dispatchExecutor = Executors.newCachedThreadPool(new CustomizableThreadFactory("fan-out-dispatch-"));
+        log.info("[FanOut] Using {}", virtualThreads ? "virtual threads" : "a pool of " + poolSize + " threads");
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() only exists from Java 21 on; the build targets 17
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (taskExecutor != null) {
+            taskExecutor.shutdown();
+            dispatchExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.DTOout.KeysetPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset ("seek") pagination by id for the admin list endpoints: each page is "id > last id of the previous page
+ * ORDER BY id LIMIT size + 1", so page N costs the same as page 1. Cursors are opaque to clients.
+ */
+@Service
+public class KeysetPaginationService {
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    @Value("${admin.pagination.default-size:50}")
+    private int defaultSize = 50;
+
+    @Value("${admin.pagination.max-size:500}")
+    private int maxSize = 500;
+
+    public int pageSize(Integer requested) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        if (requested < 1) {
+            throw new ApiException("Page size must be at least 1");
+        }
+        return Math.min(requested, maxSize);
+    }
+
+    // One extra row tells whether another page exists
+    public Limit fetchLimit(int pageSize) {
+        return Limit.of(pageSize + 1);
+    }
+
+    // Id to continue after, 0 for the first page
+    public int afterId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException();
+            }
+            return Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Invalid cursor");
+        }
+    }
+
+    public <T> KeysetPage<T> page(List<T> rows, int pageSize, Function<T, Integer> idOf) {
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new KeysetPage<>(items, encode(idOf.apply(items.get(pageSize - 1))));
+    }
+
+    private String encode(Integer lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,152 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.DTOout.CostForecastResponse;
+import com.fkhrayef.motor.Model.MaintenanceCostForecast;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceCostForecastRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly job projecting every car's maintenance spend for the next 12 months from what similar cars spent
+ * over the last 12 months. The fleet is split by make/model and the partitions are computed in parallel on a
+ * fork-join pool; the results go to maintenance_cost_forecast so the lookup is a single-row read.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MaintenanceCostForecastService {
+
+    private final CarRepository carRepository;
+    private final MaintenanceRepository maintenanceRepository;
+    private final MaintenanceCostForecastRepository forecastRepository;
+    private final SchedulerLockService schedulerLock;
+
+    @Value("${maintenance.cost-rollup.band-km:10000}")
+    private int bandSize = 10_000;
+
+    @Value("${maintenance.forecast.parallelism:4}")
+    private int parallelism = 4;
+
+    // Below this many cars in the mileage band, the projection uses the whole make/model instead
+    @Value("${maintenance.forecast.min-peers:3}")
+    private int minPeers = 3;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private record CarSpend(Integer carId, String make, String model, int band, double spend) {
+    }
+
+    @Scheduled(cron = "${maintenance.forecast.cron:0 0 4 * * *}")
+    public void nightlyForecasts() {
+        schedulerLock.runExclusive("maintenance-cost-forecast", this::runForecasts);
+    }
+
+    public void runForecasts() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("[Scheduler] Maintenance cost forecast already running, skipping");
+            return;
+        }
+        long started = System.nanoTime();
+        // The column has no fractional seconds, every row of this run gets exactly this value
+        LocalDateTime runStartedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<List<CarSpend>> partitions = loadPartitions(LocalDate.now());
+            int written = pool.submit(() -> partitions.parallelStream()
+                    .mapToInt(partition -> forecastPartition(partition, runStartedAt))
+                    .sum()).get();
+            int removed = forecastRepository.deleteComputedBefore(runStartedAt);
+
+            log.info("[Scheduler] Maintenance cost forecast: {} cars in {} make/models, {} stale rows removed, {} ms",
+                    written, partitions.size(), removed, (System.nanoTime() - started) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("[Scheduler] Maintenance cost forecast interrupted");
+        } catch (Exception e) {
+            log.error("[Scheduler] Maintenance cost forecast failed: {}", e.getMessage());
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+
+    public CostForecastResponse getForecast(Integer carId) {
+        MaintenanceCostForecast forecast = forecastRepository.findMaintenanceCostForecastByCarId(carId);
+        if (forecast == null) {
+            throw new ApiException("No maintenance cost forecast available yet for this car");
+        }
+        return new CostForecastResponse(forecast.getCarId(), forecast.getProjectedCost(), forecast.getPeerCount(),
+                forecast.getBasis(), forecast.getComputedAt());
+    }
+
+    // One list per make/model with each car's MAINTENANCE spend over the last 12 months (0 when none)
+    private List<List<CarSpend>> loadPartitions(LocalDate today) {
+        Map<Integer, Double> spendByCar = new HashMap<>();
+        for (Object[] row : maintenanceRepository.sumLastYearByCar(today.minusYears(1))) {
+            spendByCar.put((Integer) row[0], ((Number) row[1]).doubleValue());
+        }
+
+        Map<String, List<CarSpend>> byMakeModel = new HashMap<>();
+        for (Object[] row : carRepository.findAnalyticsRows()) {
+            Integer carId = (Integer) row[0];
+            String make = (String) row[1];
+            String model = (String) row[2];
+            int band = (Integer) row[3] / bandSize;
+            byMakeModel.computeIfAbsent(make + '|' + model, k -> new ArrayList<>())
+                    .add(new CarSpend(carId, make, model, band, spendByCar.getOrDefault(carId, 0.0)));
+        }
+        return new ArrayList<>(byMakeModel.values());
+    }
+
+    private int forecastPartition(List<CarSpend> cars, LocalDateTime computedAt) {
+        double modelTotal = 0;
+        Map<Integer, double[]> bandTotals = new HashMap<>();
+        for (CarSpend car : cars) {
+            modelTotal += car.spend();
+            double[] band = bandTotals.computeIfAbsent(car.band(), b -> new double[2]);
+            band[0] += car.spend();
+            band[1]++;
+        }
+        double modelAverage = modelTotal / cars.size();
+
+        List<MaintenanceCostForecast> forecasts = new ArrayList<>(cars.size());
+        for (CarSpend car : cars) {
+            double[] band = bandTotals.get(car.band());
+            boolean useBand = band[1] >= minPeers;
+
+            MaintenanceCostForecast forecast = new MaintenanceCostForecast();
+            forecast.setCarId(car.carId());
+            forecast.setMake(car.make());
+            forecast.setModel(car.model());
+            forecast.setMileageBand(car.band());
+            forecast.setProjectedCost(round(useBand ? band[0] / band[1] : modelAverage));
+            forecast.setPeerCount(useBand ? (int) band[1] : cars.size());
+            forecast.setBasis(useBand ? "mileage_band" : "make_model");
+            forecast.setComputedAt(computedAt);
+            forecasts.add(forecast);
+        }
+
+        forecastRepository.batchUpsert(forecasts);
+        return forecasts.size();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,150 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.Model.Car;
+import com.fkhrayef.motor.Model.Maintenance;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceCostRollupRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains the maintenance_cost_rollup table so cost statistics are read from a few pre-aggregated rows
+ * instead of walking every car's maintenances. Only MAINTENANCE records with a service date are counted,
+ * same as the statistics endpoint.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceCostRollupService {
+
+    private final MaintenanceCostRollupRepository rollupRepository;
+    private final MaintenanceRepository maintenanceRepository;
+    private final CarRepository carRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService schedulerLock;
+
+    @Value("${maintenance.cost-rollup.band-km:10000}")
+    private int bandSize = 10_000;
+
+    public void recordMaintenance(Car car, Maintenance maintenance, int sign) {
+        record(car.getMake(), car.getModel(), car.getMileage(), maintenance.getRecordType(), maintenance.getServiceDate(),
+                maintenance.getInvoiceAmount(), sign);
+    }
+
+    // Removes the contribution of a maintenance record as it was before an update
+    public void removePrevious(Car car, String recordType, LocalDate serviceDate, Double invoiceAmount) {
+        record(car.getMake(), car.getModel(), car.getMileage(), recordType, serviceDate, invoiceAmount, -1);
+    }
+
+    public void recordInvoiceChange(Car car, Maintenance maintenance, Double previousAmount) {
+        if (!isCounted(maintenance.getRecordType(), maintenance.getServiceDate())) {
+            return;
+        }
+        double delta = amount(maintenance.getInvoiceAmount()) - amount(previousAmount);
+        if (delta != 0) {
+            rollupRepository.upsertDelta(car.getMake(), car.getModel(), band(car.getMileage()),
+                    monthStart(maintenance.getServiceDate()), delta, 0);
+        }
+    }
+
+    /**
+     * Moves a car's maintenance spend to its new key after make, model or mileage band changed
+     */
+    public void moveCar(Car car, String previousMake, String previousModel, Integer previousMileage) {
+        if (Objects.equals(previousMake, car.getMake()) && Objects.equals(previousModel, car.getModel())
+                && band(previousMileage) == band(car.getMileage())) {
+            return;
+        }
+        for (Maintenance maintenance : maintenanceRepository.findMaintenancesByCarId(car.getId())) {
+            record(previousMake, previousModel, previousMileage, maintenance.getRecordType(), maintenance.getServiceDate(),
+                    maintenance.getInvoiceAmount(), -1);
+            recordMaintenance(car, maintenance, 1);
+        }
+    }
+
+    public void removeCar(Car car) {
+        for (Maintenance maintenance : maintenanceRepository.findMaintenancesByCarId(car.getId())) {
+            recordMaintenance(car, maintenance, -1);
+        }
+    }
+
+    public double sumSpendSince(String make, String model, LocalDate since, Integer minMileage, Integer maxMileage) {
+        Double total = rollupRepository.sumSpend(make, model, monthStart(since), minBand(minMileage), maxBand(maxMileage));
+        return total == null ? 0.0 : total;
+    }
+
+    // Cars counted in the average, filtered on the same band boundaries as the rollup rows
+    public long countCars(String make, String model, Integer minMileage, Integer maxMileage) {
+        if (minMileage == null && maxMileage == null) {
+            return carRepository.countByMakeAndModel(make, model);
+        }
+        int from = minBand(minMileage) * bandSize;
+        int to = maxMileage == null ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, (long) (maxBand(maxMileage) + 1) * bandSize - 1);
+        return carRepository.countByMakeAndModelAndMileageBetween(make, model, from, to);
+    }
+
+    /**
+     * Recomputes the whole table from the maintenance records, correcting any drift from the incremental updates
+     */
+    @Scheduled(cron = "${maintenance.cost-rollup.rebuild-cron:0 30 3 * * *}")
+    public void nightlyRebuild() {
+        schedulerLock.runExclusive("maintenance-cost-rollup-rebuild", this::rebuild);
+    }
+
+    public void rebuild() {
+        Integer rows = transactionTemplate.execute(status -> {
+            rollupRepository.deleteAllRows();
+            return rollupRepository.rebuildFromMaintenances(bandSize);
+        });
+        log.info("[Scheduler] Rebuilt maintenance cost rollup ({} rows)", rows);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (rollupRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    private void record(String make, String model, Integer carMileage, String recordType, LocalDate serviceDate, Double invoiceAmount, int sign) {
+        if (!isCounted(recordType, serviceDate) || make == null || model == null) {
+            return;
+        }
+        rollupRepository.upsertDelta(make, model, band(carMileage), monthStart(serviceDate), sign * amount(invoiceAmount), sign);
+    }
+
+    private boolean isCounted(String recordType, LocalDate serviceDate) {
+        return "MAINTENANCE".equalsIgnoreCase(recordType) && serviceDate != null;
+    }
+
+    private int band(Integer mileage) {
+        return mileage / bandSize;
+    }
+
+    private int minBand(Integer minMileage) {
+        return minMileage == null ? 0 : minMileage / bandSize;
+    }
+
+    private int maxBand(Integer maxMileage) {
+        return maxMileage == null ? Integer.MAX_VALUE : maxMileage / bandSize;
+    }
+
+    private double amount(Double invoiceAmount) {
+        return invoiceAmount == null ? 0.0 : invoiceAmount;
+    }
+
+    private LocalDate monthStart(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,173 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.DTOout.MaintenanceReminderResponseDTO;
+import com.fkhrayef.motor.DTOout.MaintenanceScheduleResponseDTO;
+import com.fkhrayef.motor.Model.MaintenanceScheduleItem;
+import com.fkhrayef.motor.Repository.MaintenanceScheduleItemRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores each manual's maintenance schedule once and turns it into due reminders for a given car locally,
+ * so generating reminders does not need an LLM call per car.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MaintenanceScheduleService {
+
+    private final MaintenanceScheduleItemRepository scheduleRepository;
+    private final ReactiveRAGService reactiveRAGService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Used to project km-based intervals onto dates when the car's own usage cannot be derived
+    @Value("${maintenance.schedule.default-km-per-day:40}")
+    private double defaultKmPerDay = 40;
+
+    // Off until the RAG backend serves the schedule endpoint; reminders then always go through RAG
+    @Value("${maintenance.schedule.extraction-enabled:false}")
+    private boolean extractionEnabled = false;
+
+    private final Set<String> extractionsInFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void validateConfig() {
+        // A zero or negative rate would project km deadlines infinitely far away
+        if (!(defaultKmPerDay > 0)) {
+            throw new IllegalStateException("maintenance.schedule.default-km-per-day must be greater than 0, got " + defaultKmPerDay);
+        }
+    }
+
+    public List<MaintenanceScheduleItem> getSchedule(String documentName) {
+        return scheduleRepository.findAllByDocumentName(documentName);
+    }
+
+    /**
+     * Fetches and stores the schedule for a manual in the background. No-op while an extraction is already running,
+     * when extraction is disabled, or once the backend has answered that it does not serve it.
+     */
+    public void requestExtraction(String documentName) {
+        if (!extractionEnabled || !reactiveRAGService.isMaintenanceScheduleAvailable()) {
+            return;
+        }
+        if (!extractionsInFlight.add(documentName)) {
+            return;
+        }
+        reactiveRAGService.extractMaintenanceSchedule(documentName)
+                .publishOn(Schedulers.boundedElastic())
+                .doFinally(signal -> extractionsInFlight.remove(documentName))
+                .subscribe(
+                        response -> storeSchedule(documentName, response),
+                        e -> log.warn("[Schedule] Extraction failed for {}: {}", documentName, e.getMessage()));
+    }
+
+    // Called when a manual is (re)processed, its old schedule may no longer match
+    public void invalidate(String documentName) {
+        transactionTemplate.executeWithoutResult(status -> scheduleRepository.deleteAllByDocumentName(documentName));
+    }
+
+    private void storeSchedule(String documentName, MaintenanceScheduleResponseDTO response) {
+        if (!Boolean.TRUE.equals(response.getSuccess()) || response.getItems() == null) {
+            log.warn("[Schedule] No schedule extracted for {}: {}", documentName, response.getError());
+            return;
+        }
+
+        List<MaintenanceScheduleItem> items = new ArrayList<>();
+        for (MaintenanceScheduleResponseDTO.ScheduleItemDTO dto : response.getItems()) {
+            boolean hasKm = dto.getIntervalKm() != null && dto.getIntervalKm() > 0;
+            boolean hasMonths = dto.getIntervalMonths() != null && dto.getIntervalMonths() > 0;
+            if (dto.getTask() == null || dto.getTask().isBlank() || (!hasKm && !hasMonths)) {
+                continue;
+            }
+            MaintenanceScheduleItem item = new MaintenanceScheduleItem();
+            item.setDocumentName(documentName);
+            // Leave room for the " at N km" suffix within the reminder message column
+            item.setTask(dto.getTask().length() > 200 ? dto.getTask().substring(0, 200) : dto.getTask());
+            item.setCategory(dto.getCategory());
+            item.setPriority(dto.getPriority());
+            item.setIntervalKm(hasKm ? dto.getIntervalKm() : null);
+            item.setIntervalMonths(hasMonths ? dto.getIntervalMonths() : null);
+            items.add(item);
+        }
+
+        if (items.isEmpty()) {
+            log.warn("[Schedule] Extracted schedule for {} had no usable items", documentName);
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            scheduleRepository.deleteAllByDocumentName(documentName);
+            scheduleRepository.saveAll(items);
+        });
+        log.info("[Schedule] Stored {} schedule items for {}", items.size(), documentName);
+    }
+
+    /**
+     * Next occurrence of every schedule item for a car: the km interval is projected to a date using the car's
+     * average daily mileage since purchase, and the earlier of the km and month deadlines wins.
+     */
+    public MaintenanceReminderResponseDTO computeReminders(String documentName, List<MaintenanceScheduleItem> schedule,
+                                                           int mileage, LocalDate purchaseDate, LocalDate today) {
+        double kmPerDay = defaultKmPerDay;
+        if (purchaseDate != null && purchaseDate.isBefore(today) && mileage > 0) {
+            kmPerDay = (double) mileage / ChronoUnit.DAYS.between(purchaseDate, today);
+        }
+
+        List<MaintenanceReminderResponseDTO.ReminderDataDTO> reminders = new ArrayList<>();
+        for (MaintenanceScheduleItem item : schedule) {
+            LocalDate dueDate = null;
+            Integer dueMileage = null;
+
+            if (item.getIntervalKm() != null && item.getIntervalKm() > 0) {
+                int interval = item.getIntervalKm();
+                dueMileage = (mileage / interval + 1) * interval;
+                long days = (long) Math.ceil((dueMileage - mileage) / kmPerDay);
+                dueDate = today.plusDays(days);
+            }
+
+            if (item.getIntervalMonths() != null && item.getIntervalMonths() > 0) {
+                LocalDate byMonths = nextMonthlyDate(purchaseDate, item.getIntervalMonths(), today);
+                if (dueDate == null || byMonths.isBefore(dueDate)) {
+                    dueDate = byMonths;
+                }
+            }
+
+            if (dueDate == null) {
+                continue;
+            }
+
+            String message = dueMileage != null ? item.getTask() + " at " + dueMileage + " km" : item.getTask();
+            reminders.add(new MaintenanceReminderResponseDTO.ReminderDataDTO(
+                    "maintenance", dueDate.toString(), message, dueMileage, item.getPriority(), item.getCategory()));
+        }
+
+        return new MaintenanceReminderResponseDTO(true, reminders, documentName, mileage, LocalDateTime.now().toString(), null);
+    }
+
+    private LocalDate nextMonthlyDate(LocalDate purchaseDate, int intervalMonths, LocalDate today) {
+        if (purchaseDate == null || purchaseDate.isAfter(today)) {
+            return today.plusMonths(intervalMonths);
+        }
+        long elapsed = ChronoUnit.MONTHS.between(purchaseDate, today);
+        long periods = elapsed / intervalMonths + 1;
+        LocalDate next = purchaseDate.plusMonths(periods * intervalMonths);
+        // MONTHS.between truncates, so step forward until strictly after today
+        while (!next.isAfter(today)) {
+            next = next.plusMonths(intervalMonths);
+        }
+        return next;
+    }
+}
@@ -3,6 +3,8 @@ package com.fkhrayef.motor.Service;
 
 import com.fkhrayef.motor.Api.ApiException;
 import com.fkhrayef.motor.DTOin.MaintenanceDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
+import com.fkhrayef.motor.Event.MaintenanceChangedEvent;
 import com.fkhrayef.motor.Model.Car;
 import com.fkhrayef.motor.Model.Maintenance;
 import com.fkhrayef.motor.Model.User;
@@ -10,9 +12,11 @@ import com.fkhrayef.motor.Repository.CarRepository;
 import com.fkhrayef.motor.Repository.MaintenanceRepository;
 import com.fkhrayef.motor.Repository.UserRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
@@ -23,9 +27,14 @@ public class MaintenanceService {
     private final CarRepository carRepository;
     private final S3Service s3Service;
     private final UserRepository userRepository;
-
-    public List<Maintenance> getAllMaintenances(){
-        return maintenanceRepository.findAll();
+    private final MaintenanceCostRollupService costRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final KeysetPaginationService pagination;
+
+    public KeysetPage<Maintenance> getAllMaintenances(String cursor, Integer size) {
+        int pageSize = pagination.pageSize(size);
+        List<Maintenance> rows = maintenanceRepository.findAllByIdGreaterThanOrderByIdAsc(pagination.afterId(cursor), pagination.fetchLimit(pageSize));
+        return pagination.page(rows, pageSize, Maintenance::getId);
     }
 
     public void addMaintenance(Integer userId, Integer carId, MaintenanceDTO maintenanceDTO) {
@@ -57,6 +66,8 @@ public class MaintenanceService {
         maintenance.setCar(car);
 
         maintenanceRepository.save(maintenance);
+        costRollupService.recordMaintenance(car, maintenance, 1);
+        eventPublisher.publishEvent(new MaintenanceChangedEvent(car.getId(), car.getMake(), car.getModel()));
 
     }
 
@@ -79,6 +90,10 @@ public class MaintenanceService {
         if (Boolean.FALSE.equals(car.getIsAccessible())) {
             throw new ApiException("This car is not accessible on your current plan.");
         }
+
+        String previousRecordType = maintenance.getRecordType();
+        LocalDate previousServiceDate = maintenance.getServiceDate();
+
         maintenance.setRecordType(maintenanceDTO.getRecordType());
         maintenance.setServiceType(maintenanceDTO.getServiceType());
         maintenance.setServiceDate(maintenanceDTO.getServiceDate());
@@ -86,6 +101,9 @@ public class MaintenanceService {
         maintenance.setNotes(maintenanceDTO.getNotes());
 
         maintenanceRepository.save(maintenance);
+        costRollupService.removePrevious(car, previousRecordType, previousServiceDate, maintenance.getInvoiceAmount());
+        costRollupService.recordMaintenance(car, maintenance, 1);
+        eventPublisher.publishEvent(new MaintenanceChangedEvent(car.getId(), car.getMake(), car.getModel()));
     }
 
     public void deleteMaintenance(Integer userId, Integer id) {
@@ -113,6 +131,8 @@ public class MaintenanceService {
             deleteInvoice(userId, id);
         }
         maintenanceRepository.delete(maintenance);
+        costRollupService.recordMaintenance(car, maintenance, -1);
+        eventPublisher.publishEvent(new MaintenanceChangedEvent(car.getId(), car.getMake(), car.getModel()));
     }
 
     public List<Maintenance> getMaintenancesByCarId(Integer userId, Integer carId){
@@ -193,9 +213,12 @@ public class MaintenanceService {
         }
 
         // Update maintenance record with invoice information
+        Double previousAmount = maintenance.getInvoiceAmount();
         maintenance.setInvoiceFileUrl(s3Url);
         maintenance.setInvoiceAmount(invoiceAmount);
         maintenanceRepository.save(maintenance);
+        costRollupService.recordInvoiceChange(car, maintenance, previousAmount);
+        eventPublisher.publishEvent(new MaintenanceChangedEvent(car.getId(), car.getMake(), car.getModel()));
     }
 
     public byte[] downloadInvoice(Integer userId, Integer maintenanceId) {
@@ -0,0 +1,274 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.DTOout.ManualIngestionJobResponse;
+import com.fkhrayef.motor.Model.ManualIngestionJob;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.ManualIngestionJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs manual uploads in the background: stage the PDF locally, upload it to S3, then have the RAG backend process it.
+ * Jobs are persisted so their status survives restarts, and unfinished jobs are resumed on startup.
+ * There is one job per document: owners of the same model share it, and any of them can poll it.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ManualIngestionService {
+
+    private static final List<String> ACTIVE_STATUSES = List.of("queued", "uploading", "processing");
+
+    private final ManualIngestionJobRepository jobRepository;
+    private final CarRepository carRepository;
+    private final S3Service s3Service;
+    private final RAGService ragService;
+    private final MaintenanceScheduleService maintenanceScheduleService;
+    private final ThreadPoolTaskExecutor ingestionExecutor;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${rag.ingestion.max-attempts:4}")
+    private int maxAttempts = 4;
+
+    @Value("${rag.ingestion.initial-backoff-ms:5000}")
+    private long initialBackoffMs = 5_000L;
+
+    @Value("${rag.ingestion.max-backoff-ms:300000}")
+    private long maxBackoffMs = 300_000L;
+
+    @Value("${rag.ingestion.staging-dir:${java.io.tmpdir}/motor-manual-staging}")
+    private String stagingDir;
+
+    // documentName -> job id currently working on that manual
+    private final Map<String, Integer> inFlightJobs = new ConcurrentHashMap<>();
+
+    public ManualIngestionJobResponse submit(Integer userId, Integer carId, String documentName, String catalogPath, MultipartFile file) {
+        ManualIngestionJob job;
+        synchronized (inFlightJobs) {
+            // Someone is already uploading this manual (possibly another owner of the same model) => fold into that job
+            ManualIngestionJob existing = findInFlight(documentName);
+            if (existing != null) {
+                return toResponse(existing, carId);
+            }
+
+            job = new ManualIngestionJob();
+            job.setStatus("queued");
+            job.setDocumentName(documentName);
+            job.setCatalogPath(catalogPath);
+            job.setContentType(file.getContentType());
+            job.setAttempts(0);
+            job.setCarId(carId);
+            job.setUserId(userId);
+            job = jobRepository.save(job);
+            inFlightJobs.put(documentName, job.getId());
+        }
+
+        // The multipart temp file is gone after the request, so keep our own copy for the worker
+        try {
+            Path staged = stageFile(job.getId(), file);
+            job.setStagedFilePath(staged.toString());
+            job = jobRepository.save(job);
+        } catch (IOException e) {
+            fail(job, "Failed to stage upload: " + e.getMessage());
+            throw new ApiException("Failed to upload file: " + e.getMessage());
+        }
+
+        dispatch(job.getId(), Duration.ZERO);
+        return toResponse(job, carId);
+    }
+
+    public ManualIngestionJobResponse getJob(Integer userId, Integer jobId) {
+        ManualIngestionJob job = jobRepository.findManualIngestionJobById(jobId);
+        if (job == null) {
+            throw new ApiException("Ingestion job not found");
+        }
+        // Shared by every owner of a car with this manual; each sees their own car in the response
+        List<Integer> carIds = carRepository.findIdsByUserIdAndDocumentName(userId, job.getDocumentName());
+        if (carIds.isEmpty()) {
+            throw new ApiException("You don't have permission to view this ingestion job");
+        }
+        return toResponse(job, carIds.contains(job.getCarId()) ? job.getCarId() : carIds.get(0));
+    }
+
+    /**
+     * Picks up jobs that were still running when the application stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<ManualIngestionJob> unfinished = jobRepository.findAllByStatusIn(ACTIVE_STATUSES);
+        for (ManualIngestionJob job : unfinished) {
+            inFlightJobs.put(job.getDocumentName(), job.getId());
+            dispatch(job.getId(), Duration.ZERO);
+        }
+        if (!unfinished.isEmpty()) {
+            log.info("[Ingestion] Resumed {} unfinished manual ingestion jobs", unfinished.size());
+        }
+    }
+
+    private void runJob(Integer jobId) {
+        ManualIngestionJob job = jobRepository.findManualIngestionJobById(jobId);
+        if (job == null || !ACTIVE_STATUSES.contains(job.getStatus())) {
+            return;
+        }
+
+        // Nothing to retry from if the staged copy was lost before the upload (e.g. temp dir wiped on restart)
+        if (job.getS3Url() == null && !hasStagedFile(job) && !s3Service.catalogFileExists(job.getCatalogPath())) {
+            fail(job, "Staged upload is missing, please upload the manual again");
+            return;
+        }
+
+        job.setAttempts(job.getAttempts() + 1);
+        try {
+            if (job.getS3Url() == null) {
+                job.setStatus("uploading");
+                job = jobRepository.save(job);
+                job.setS3Url(uploadToS3(job));
+            }
+
+            job.setStatus("processing");
+            job = jobRepository.save(job);
+            if (!ragService.processDocument(job.getS3Url(), job.getDocumentName())) {
+                throw new ApiException("Failed to process document in RAG system");
+            }
+
+            job.setStatus("completed");
+            job.setLastError(null);
+            job.setCompletedAt(LocalDateTime.now());
+            jobRepository.save(job);
+            finish(job);
+            log.info("[Ingestion] Job {} completed for {}", job.getId(), job.getDocumentName());
+
+            // (Re)extract the manual's maintenance schedule so reminders can be computed locally
+            maintenanceScheduleService.invalidate(job.getDocumentName());
+            maintenanceScheduleService.requestExtraction(job.getDocumentName());
+        } catch (Exception e) {
+            if (job.getAttempts() >= maxAttempts) {
+                fail(job, e.getMessage());
+                log.error("[Ingestion] Job {} failed after {} attempts: {}", job.getId(), job.getAttempts(), e.getMessage());
+                return;
+            }
+
+            job.setStatus("queued");
+            job.setLastError(e.getMessage());
+            jobRepository.save(job);
+
+            Duration backoff = backoffFor(job.getAttempts());
+            log.warn("[Ingestion] Job {} attempt {} failed, retrying in {} ms: {}",
+                    job.getId(), job.getAttempts(), backoff.toMillis(), e.getMessage());
+            dispatch(job.getId(), backoff);
+        }
+    }
+
+    private String uploadToS3(ManualIngestionJob job) {
+        // A previous attempt may have uploaded the file before failing on the RAG side
+        if (s3Service.catalogFileExists(job.getCatalogPath())) {
+            return s3Service.generateS3Url("catalogs/" + job.getCatalogPath());
+        }
+        return s3Service.uploadCatalogFile(Paths.get(job.getStagedFilePath()), job.getContentType(), job.getCatalogPath());
+    }
+
+    private boolean hasStagedFile(ManualIngestionJob job) {
+        return job.getStagedFilePath() != null && Files.exists(Paths.get(job.getStagedFilePath()));
+    }
+
+    private void dispatch(Integer jobId, Duration delay) {
+        Runnable submit = () -> {
+            try {
+                ingestionExecutor.execute(() -> runJob(jobId));
+            } catch (TaskRejectedException e) {
+                // Worker queue is full, try again later without spending an attempt
+                log.warn("[Ingestion] Worker queue full, delaying job {}", jobId);
+                dispatch(jobId, Duration.ofMillis(initialBackoffMs));
+            }
+        };
+
+        if (delay.isZero()) {
+            submit.run();
+        } else {
+            taskScheduler.schedule(submit, Instant.now().plus(delay));
+        }
+    }
+
+    private Duration backoffFor(int attempts) {
+        long delay = initialBackoffMs << Math.min(Math.max(attempts - 1, 0), 20);
+        return Duration.ofMillis(Math.min(delay, maxBackoffMs));
+    }
+
+    private void fail(ManualIngestionJob job, String error) {
+        job.setStatus("failed");
+        job.setLastError(error);
+        jobRepository.save(job);
+        finish(job);
+    }
+
+    private void finish(ManualIngestionJob job) {
+        inFlightJobs.remove(job.getDocumentName(), job.getId());
+        if (job.getStagedFilePath() != null) {
+            try {
+                Files.deleteIfExists(Paths.get(job.getStagedFilePath()));
+            } catch (IOException e) {
+                log.warn("[Ingestion] Could not delete staged file {}: {}", job.getStagedFilePath(), e.getMessage());
+            }
+        }
+    }
+
+    private ManualIngestionJob findInFlight(String documentName) {
+        Integer jobId = inFlightJobs.get(documentName);
+        if (jobId != null) {
+            ManualIngestionJob job = jobRepository.findManualIngestionJobById(jobId);
+            if (job != null && ACTIVE_STATUSES.contains(job.getStatus())) {
+                return job;
+            }
+            inFlightJobs.remove(documentName, jobId);
+        }
+        return jobRepository.findFirstByDocumentNameAndStatusInOrderByIdDesc(documentName, ACTIVE_STATUSES);
+    }
+
+    private Path stageFile(Integer jobId, MultipartFile file) throws IOException {
+        Path dir = Paths.get(stagingDir);
+        Files.createDirectories(dir);
+        Path staged = dir.resolve("job-" + jobId + ".pdf");
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, staged, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return staged;
+    }
+
+    // carId is the requesting owner's car, never the car of whoever started the job
+    private ManualIngestionJobResponse toResponse(ManualIngestionJob job, Integer carId) {
+        return new ManualIngestionJobResponse(
+                job.getId(),
+                job.getStatus(),
+                job.getDocumentName(),
+                carId,
+                job.getAttempts(),
+                maxAttempts,
+                job.getS3Url(),
+                job.getLastError(),
+                job.getCreatedAt(),
+                job.getUpdatedAt(),
+                job.getCompletedAt());
+    }
+}
@@ -2,6 +2,7 @@ package com.fkhrayef.motor.Service;
 
 import com.fkhrayef.motor.Api.ApiException;
 import com.fkhrayef.motor.DTOin.MarketingDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
 import com.fkhrayef.motor.Model.Marketing;
 import com.fkhrayef.motor.Repository.MarketingRepository;
 import lombok.RequiredArgsConstructor;
@@ -14,9 +15,12 @@ import java.util.List;
 public class MarketingService {
 
     private final MarketingRepository marketingRepository;
+    private final KeysetPaginationService pagination;
 
-    public List<Marketing> getAllMarketing(){
-        return marketingRepository.findAll();
+    public KeysetPage<Marketing> getAllMarketing(String cursor, Integer size) {
+        int pageSize = pagination.pageSize(size);
+        List<Marketing> rows = marketingRepository.findAllByIdGreaterThanOrderByIdAsc(pagination.afterId(cursor), pagination.fetchLimit(pageSize));
+        return pagination.page(rows, pageSize, Marketing::getId);
     }
 
     public void addMarketing(MarketingDTO marketingDTO){
@@ -0,0 +1,191 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.DTOout.NotificationOutboxStatsResponse;
+import com.fkhrayef.motor.Model.NotificationOutbox;
+import com.fkhrayef.motor.Repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent queue for WhatsApp and email notifications. Jobs enqueue and return immediately; a poller claims
+ * due rows in batches and delivers them through FanOutService, which caps concurrency and rate per provider.
+ * Failed sends are retried with exponential backoff and end up 'dead' after the last attempt.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NotificationOutboxService {
+
+    public static final String WHATSAPP = "whatsapp";
+    public static final String EMAIL = "email";
+    public static final String EMAIL_HTML = "email_html";
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final WhatsAppService whatsappService;
+    private final EmailService emailService;
+    private final FanOutService fanOutService;
+
+    @Value("${notifications.outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${notifications.outbox.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${notifications.outbox.initial-backoff-ms:30000}")
+    private long initialBackoffMs = 30_000L;
+
+    @Value("${notifications.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs = 3_600_000L;
+
+    // A row still 'sending' after this long belonged to a worker that died; it is handed out again
+    @Value("${notifications.outbox.claim-timeout-ms:600000}")
+    private long claimTimeoutMs = 600_000L;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong latencyTotalMs = new AtomicLong();
+    private final AtomicLong latencyMaxMs = new AtomicLong();
+
+    public void enqueueWhatsApp(String phone, String message) {
+        enqueue(WHATSAPP, phone, null, message);
+    }
+
+    public void enqueueEmail(String to, String subject, String text) {
+        enqueue(EMAIL, to, subject, text);
+    }
+
+    public void enqueueEmailHtml(String to, String subject, String html) {
+        enqueue(EMAIL_HTML, to, subject, html);
+    }
+
+    private void enqueue(String channel, String recipient, String subject, String body) {
+        NotificationOutbox notification = new NotificationOutbox();
+        notification.setChannel(channel);
+        notification.setRecipient(recipient);
+        notification.setSubject(subject);
+        notification.setBody(body);
+        notification.setStatus("pending");
+        notification.setAttempts(0);
+        notification.setNextAttemptAt(LocalDateTime.now());
+        outboxRepository.save(notification);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:2000}")
+    public void drain() {
+        try {
+            int released = outboxRepository.releaseStaleClaims(LocalDateTime.now().minus(Duration.ofMillis(claimTimeoutMs)));
+            if (released > 0) {
+                log.warn("[Outbox] Released {} notifications left in 'sending'", released);
+            }
+
+            int claimed;
+            do {
+                claimed = drainBatch();
+            } while (claimed == batchSize);
+        } catch (Exception e) {
+            log.error("[Outbox] Drain failed: {}", e.getMessage());
+        }
+    }
+
+    // Claims up to one batch of due rows and delivers them; returns how many were due
+    private int drainBatch() {
+        List<Integer> dueIds = outboxRepository.findDueIds(LocalDateTime.now(), Limit.of(batchSize));
+        if (dueIds.isEmpty()) {
+            return 0;
+        }
+
+        String token = UUID.randomUUID().toString();
+        outboxRepository.claim(dueIds, token, LocalDateTime.now());
+        List<NotificationOutbox> claimed = outboxRepository.findAllByClaimTokenAndStatus(token, "sending");
+        fanOutService.run("notification-outbox", claimed, n -> providerOf(n.getChannel()), this::deliver);
+        return dueIds.size();
+    }
+
+    public void deliver(NotificationOutbox notification) {
+        try {
+            switch (notification.getChannel()) {
+                case WHATSAPP -> whatsappService.sendWhatsAppMessage(notification.getBody(), notification.getRecipient());
+                case EMAIL -> emailService.sendEmail(notification.getRecipient(), notification.getSubject(), notification.getBody());
+                case EMAIL_HTML -> emailService.sendEmailHtml(notification.getRecipient(), notification.getSubject(), notification.getBody());
+                default -> throw new IllegalStateException("Unknown channel " + notification.getChannel());
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            notification.setStatus("sent");
+            notification.setSentAt(now);
+            notification.setAttempts(notification.getAttempts() + 1);
+            notification.setLastError(null);
+            outboxRepository.save(notification);
+
+            delivered.incrementAndGet();
+            if (notification.getCreatedAt() != null) {
+                long latency = Duration.between(notification.getCreatedAt(), now).toMillis();
+                latencyTotalMs.addAndGet(latency);
+                latencyMaxMs.accumulateAndGet(latency, Math::max);
+            }
+        } catch (Exception e) {
+            fail(notification, e);
+        }
+    }
+
+    private void fail(NotificationOutbox notification, Exception error) {
+        int attempts = notification.getAttempts() + 1;
+        notification.setAttempts(attempts);
+        String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
+        notification.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        notification.setClaimToken(null);
+
+        if (attempts >= maxAttempts) {
+            notification.setStatus("dead");
+            deadLettered.incrementAndGet();
+            log.error("[Outbox] {} notification {} to {} is dead after {} attempts: {}",
+                    notification.getChannel(), notification.getId(), notification.getRecipient(), attempts, message);
+        } else {
+            Duration backoff = backoffFor(attempts);
+            notification.setStatus("pending");
+            notification.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+            retried.incrementAndGet();
+            log.warn("[Outbox] {} notification {} attempt {} failed, retrying in {} ms: {}",
+                    notification.getChannel(), notification.getId(), attempts, backoff.toMillis(), message);
+        }
+        outboxRepository.save(notification);
+    }
+
+    private Duration backoffFor(int attempts) {
+        long delay = initialBackoffMs << Math.min(Math.max(attempts - 1, 0), 20);
+        return Duration.ofMillis(Math.min(delay, maxBackoffMs));
+    }
+
+    // Both email channels go through the same SMTP server
+    private static String providerOf(String channel) {
+        return WHATSAPP.equals(channel) ? "whatsapp" : "email";
+    }
+
+    public NotificationOutboxStatsResponse getStats() {
+        NotificationOutboxStatsResponse stats = new NotificationOutboxStatsResponse();
+        stats.setPending(outboxRepository.countByStatus("pending"));
+        stats.setSending(outboxRepository.countByStatus("sending"));
+        stats.setDead(outboxRepository.countByStatus("dead"));
+        LocalDateTime oldest = outboxRepository.findOldestPendingCreatedAt();
+        stats.setOldestPendingAgeMs(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+
+        long deliveredCount = delivered.get();
+        stats.setDelivered(deliveredCount);
+        stats.setRetried(retried.get());
+        stats.setDeadLettered(deadLettered.get());
+        stats.setAverageLatencyMs(deliveredCount == 0 ? 0.0 : (double) latencyTotalMs.get() / deliveredCount);
+        stats.setMaxLatencyMs(latencyMaxMs.get());
+        return stats;
+    }
+}
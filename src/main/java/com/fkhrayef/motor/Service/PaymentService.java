@@ -6,6 +6,7 @@ import com.fkhrayef.motor.Api.ApiException;
 import com.fkhrayef.motor.DTOin.PaymentRequest;
 import com.fkhrayef.motor.DTOout.MoyasarPaymentResponseDTO;
 import com.fkhrayef.motor.DTOout.PaymentCreationResponseDTO;
+import com.fkhrayef.motor.Event.CarAccessChangedEvent;
 import com.fkhrayef.motor.Model.Payment;
 import com.fkhrayef.motor.Model.Subscription;
 import com.fkhrayef.motor.Model.User;
@@ -15,6 +16,7 @@ import com.fkhrayef.motor.Repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 
 import org.springframework.http.*;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -34,7 +36,9 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
     private final SubscriptionRepository subscriptionRepository;
-    private final WhatsAppService whatsappService;
+    private final NotificationOutboxService notificationOutbox;
+    private final SchedulerLockService schedulerLock;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${moyasar.api.key}")
     private String apiKey;
@@ -282,6 +286,7 @@ public class PaymentService {
             subscription.setPrice(payment.getAmount());
 
             subscriptionRepository.save(subscription);
+            eventPublisher.publishEvent(new CarAccessChangedEvent(List.of(userId)));
 
             // Link payment to subscription
             payment.setSubscription(subscriptionRepository.findSubscriptionById(userId));
@@ -299,7 +304,7 @@ public class PaymentService {
                             "• تاريخ البداية: " + subscription.getStartDate().toLocalDate() + "\n" +
                             "• تاريخ الانتهاء: " + subscription.getEndDate().toLocalDate() + "\n\n" +
                             "مرحباً بك في منصتنا! 🚀";
-                    whatsappService.sendWhatsAppMessage(activationMessage, userPhone);
+                    notificationOutbox.enqueueWhatsApp(userPhone, activationMessage);
                 }
             } catch (Exception ex) {
                 log.error("Failed to send subscription activation notification: {}", ex.getMessage());
@@ -350,6 +355,7 @@ public class PaymentService {
         if (subscriptionRepository.findSubscriptionById(userId) != null) {
             throw new ApiException("Failed to delete subscription");
         }
+        eventPublisher.publishEvent(new CarAccessChangedEvent(List.of(userId)));
 
         // Send WhatsApp confirmation message to founder
         try {
@@ -360,7 +366,7 @@ public class PaymentService {
                         "• الخطة: " + planType + "\n" +
                         "• الدورة: " + billingCycle + "\n\n" +
                         "يمكنك إعادة الاشتراك في أي وقت";
-                whatsappService.sendWhatsAppMessage(message, userPhone);
+                notificationOutbox.enqueueWhatsApp(userPhone, message);
             }
         } catch (Exception ex) {
             // Log error but don't fail the main operation
@@ -394,6 +400,11 @@ public class PaymentService {
     // @Scheduled(cron = "0 0 0 * * *") // Daily at midnight
     @Scheduled(cron = "0 * * * * *") // Every minute (for testing)
     public void handleSubscriptionRenewals() {
+        // Renewals charge cards, so only one node may run them at a time
+        schedulerLock.runExclusive("subscription-renewals", this::processDueRenewals);
+    }
+
+    private void processDueRenewals() {
         try {
             log.info("[Scheduler] Starting daily subscription renewal check...");
             // Find all active subscriptions that are expiring today or have expired
@@ -439,7 +450,7 @@ public class PaymentService {
                         "شكراً لك";
                 log.info("[Scheduler][WhatsApp] To: {} | Message: {}", userPhone, message);
                 if (userPhone != null) {
-                    whatsappService.sendWhatsAppMessage(message, userPhone);
+                    notificationOutbox.enqueueWhatsApp(userPhone, message);
                 }
                 log.info("[Scheduler] Subscription cancelled due to missing card data. Notified: {}", userPhone);
             } catch (Exception ex) {
@@ -451,6 +462,7 @@ public class PaymentService {
         // Mark current subscription as expired
         subscription.setStatus("expired");
         subscriptionRepository.save(subscription);
+        eventPublisher.publishEvent(new CarAccessChangedEvent(List.of(user.getId())));
 
         // Attempt automatic renewal using stored card fields
         try {
@@ -494,7 +506,7 @@ public class PaymentService {
                         "يرجى إكمال الدفع لتفعيل اشتراكك";
                 log.info("[Scheduler][WhatsApp] To: {} | Message: {}", userPhone, successMessage);
                 if (userPhone != null) {
-                    whatsappService.sendWhatsAppMessage(successMessage, userPhone);
+                    notificationOutbox.enqueueWhatsApp(userPhone, successMessage);
                 }
             } catch (Exception ex) {
                 log.error("[Scheduler] Failed to send WhatsApp renewal notification: {}", ex.getMessage());
@@ -520,7 +532,7 @@ public class PaymentService {
                         "• المبلغ: " + payment.getAmount() + " " + payment.getCurrency() + "\n" +
                         "• الحالة: مكتمل\n\n" +
                         "شكراً لك!";
-                whatsappService.sendWhatsAppMessage(founderMessage, userPhone);
+                notificationOutbox.enqueueWhatsApp(userPhone, founderMessage);
             }
         } catch (Exception ex) {
             log.error("Failed to send payment completion notifications: {}", ex.getMessage());
@@ -0,0 +1,262 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.DTOout.RAGClientStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Guards every call to the RAG backend with a timeout, a concurrency bulkhead and a circuit breaker.
+ * When the backend hangs or keeps failing, callers get an immediate error instead of piling up.
+ */
+@Service
+public class RAGResilienceService {
+
+    // Bulkhead: max RAG calls in flight at once, extra calls are rejected instead of queued
+    @Value("${rag.client.bulkhead.max-concurrent:32}")
+    private int maxConcurrent = 32;
+
+    // Circuit breaker: opens when the failure rate over the last window-size calls reaches the threshold
+    @Value("${rag.client.breaker.window-size:20}")
+    private int windowSize = 20;
+
+    @Value("${rag.client.breaker.minimum-calls:10}")
+    private int minimumCalls = 10;
+
+    @Value("${rag.client.breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold = 50;
+
+    @Value("${rag.client.breaker.open-duration-ms:30000}")
+    private long openDurationMs = 30_000L;
+
+    @Value("${rag.client.breaker.half-open-calls:3}")
+    private int halfOpenCalls = 3;
+
+    private Semaphore bulkhead;
+
+    private final Object breakerLock = new Object();
+    private String state = "closed";
+    private boolean[] outcomes;
+    private int outcomeIndex;
+    private int outcomeCount;
+    private int failureCount;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+
+    private final AtomicLong rejectedByBreaker = new AtomicLong();
+    private final AtomicLong rejectedByBulkhead = new AtomicLong();
+    private final Map<String, AtomicLong> stateTransitions = new ConcurrentHashMap<>();
+    private final Map<String, OperationCounters> operations = new ConcurrentHashMap<>();
+
+    private static class OperationCounters {
+        final AtomicLong successes = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+    }
+
+    public <T> Mono<T> guard(String operation, Duration timeout, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            ApiException rejection = tryAcquire();
+            if (rejection != null) {
+                return Mono.error(rejection);
+            }
+            OperationCounters counters = counters(operation);
+            return Mono.defer(call)
+                    .timeout(timeout, Mono.error(() -> new TimeoutException("RAG " + operation + " timed out after " + timeout.toMillis() + " ms")))
+                    .doOnSuccess(value -> onSuccess(counters))
+                    .doOnError(e -> onError(counters, e))
+                    .doFinally(signal -> release(signal));
+        });
+    }
+
+    /**
+     * Same as guard for streamed responses, the timeout applies to the gap between two elements.
+     */
+    public <T> Flux<T> guardMany(String operation, Duration idleTimeout, Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            ApiException rejection = tryAcquire();
+            if (rejection != null) {
+                return Flux.error(rejection);
+            }
+            OperationCounters counters = counters(operation);
+            return Flux.defer(call)
+                    .timeout(idleTimeout, Flux.error(() -> new TimeoutException("RAG " + operation + " stalled for " + idleTimeout.toMillis() + " ms")))
+                    .doOnComplete(() -> onSuccess(counters))
+                    .doOnError(e -> onError(counters, e))
+                    .doFinally(signal -> release(signal));
+        });
+    }
+
+    private ApiException tryAcquire() {
+        synchronized (breakerLock) {
+            ensureInitialized();
+            if ("open".equals(state)) {
+                if (System.currentTimeMillis() - openedAt < openDurationMs) {
+                    rejectedByBreaker.incrementAndGet();
+                    return new ApiException("RAG service is temporarily unavailable, please try again shortly");
+                }
+                transitionTo("half_open");
+            }
+            if ("half_open".equals(state)) {
+                if (halfOpenInFlight >= halfOpenCalls) {
+                    rejectedByBreaker.incrementAndGet();
+                    return new ApiException("RAG service is temporarily unavailable, please try again shortly");
+                }
+                halfOpenInFlight++;
+            }
+        }
+        if (!bulkhead.tryAcquire()) {
+            synchronized (breakerLock) {
+                if ("half_open".equals(state) && halfOpenInFlight > 0) {
+                    halfOpenInFlight--;
+                }
+            }
+            rejectedByBulkhead.incrementAndGet();
+            return new ApiException("RAG service is busy, please try again shortly");
+        }
+        return null;
+    }
+
+    private void release(SignalType signal) {
+        bulkhead.release();
+        if (signal == SignalType.CANCEL) {
+            // Cancelled calls say nothing about backend health, just give back the half-open slot
+            synchronized (breakerLock) {
+                if ("half_open".equals(state) && halfOpenInFlight > 0) {
+                    halfOpenInFlight--;
+                }
+            }
+        }
+    }
+
+    private void onSuccess(OperationCounters counters) {
+        counters.successes.incrementAndGet();
+        recordHealthyCall();
+    }
+
+    private void recordHealthyCall() {
+        synchronized (breakerLock) {
+            if ("half_open".equals(state)) {
+                halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+                halfOpenSuccesses++;
+                if (halfOpenSuccesses >= halfOpenCalls) {
+                    transitionTo("closed");
+                }
+                return;
+            }
+            recordOutcome(false);
+        }
+    }
+
+    private void onError(OperationCounters counters, Throwable e) {
+        if (e instanceof TimeoutException) {
+            counters.timeouts.incrementAndGet();
+        }
+        if (!isBackendFailure(e)) {
+            // e.g. 4xx for an unknown document: the backend is healthy
+            recordHealthyCall();
+            return;
+        }
+        counters.failures.incrementAndGet();
+        synchronized (breakerLock) {
+            if ("half_open".equals(state)) {
+                transitionTo("open");
+                return;
+            }
+            recordOutcome(true);
+        }
+    }
+
+    private boolean isBackendFailure(Throwable e) {
+        if (e instanceof ApiException) {
+            return false;
+        }
+        return !(e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+    }
+
+    // Caller holds breakerLock
+    private void recordOutcome(boolean failed) {
+        if (outcomeCount == windowSize && outcomes[outcomeIndex]) {
+            failureCount--;
+        }
+        outcomes[outcomeIndex] = failed;
+        if (failed) {
+            failureCount++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % windowSize;
+        outcomeCount = Math.min(outcomeCount + 1, windowSize);
+
+        if ("closed".equals(state) && outcomeCount >= minimumCalls
+                && failureCount * 100 >= failureRateThreshold * outcomeCount) {
+            transitionTo("open");
+        }
+    }
+
+    // Caller holds breakerLock
+    private void transitionTo(String newState) {
+        state = newState;
+        stateTransitions.computeIfAbsent(newState, s -> new AtomicLong()).incrementAndGet();
+        halfOpenInFlight = 0;
+        halfOpenSuccesses = 0;
+        if ("open".equals(newState)) {
+            openedAt = System.currentTimeMillis();
+        }
+        if ("closed".equals(newState)) {
+            outcomes = new boolean[windowSize];
+            outcomeIndex = 0;
+            outcomeCount = 0;
+            failureCount = 0;
+        }
+    }
+
+    // Caller holds breakerLock; lazily sized because @Value fields are injected after construction
+    private void ensureInitialized() {
+        if (outcomes == null) {
+            outcomes = new boolean[windowSize];
+            bulkhead = new Semaphore(maxConcurrent);
+        }
+    }
+
+    private OperationCounters counters(String operation) {
+        return operations.computeIfAbsent(operation, op -> new OperationCounters());
+    }
+
+    public RAGClientStatsResponse getStats() {
+        RAGClientStatsResponse stats = new RAGClientStatsResponse();
+        synchronized (breakerLock) {
+            ensureInitialized();
+            stats.setBreakerState(state);
+            stats.setWindowCalls(outcomeCount);
+            stats.setWindowFailureRate(outcomeCount == 0 ? 0.0 : (double) failureCount / outcomeCount);
+        }
+        Map<String, Long> transitions = new TreeMap<>();
+        stateTransitions.forEach((s, count) -> transitions.put(s, count.get()));
+        stats.setStateTransitions(transitions);
+        stats.setRejectedByBreaker(rejectedByBreaker.get());
+        stats.setBulkheadMaxConcurrent(maxConcurrent);
+        stats.setBulkheadInUse(maxConcurrent - bulkhead.availablePermits());
+        stats.setRejectedByBulkhead(rejectedByBulkhead.get());
+
+        Map<String, Map<String, Long>> byOperation = new TreeMap<>();
+        operations.forEach((operation, counters) -> byOperation.put(operation, Map.of(
+                "successes", counters.successes.get(),
+                "failures", counters.failures.get(),
+                "timeouts", counters.timeouts.get())));
+        stats.setOperations(byOperation);
+        return stats;
+    }
+}
@@ -1,157 +1,92 @@
 package com.fkhrayef.motor.Service;
 
-import com.fkhrayef.motor.Api.ApiException;
-import com.fkhrayef.motor.DTOin.QuestionRequest;
 import com.fkhrayef.motor.DTOout.*;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-
-import java.util.List;
-import java.util.Map;
 
+/**
+ * Blocking facade over ReactiveRAGService for callers that are not on a request thread
+ * (schedulers, background jobs). Request handlers should use ReactiveRAGService directly.
+ */
 @Service
+@Slf4j
 public class RAGService {
 
-    private final WebClient ragApiClient;
+    private final ReactiveRAGService reactiveRAGService;
+    private final DocumentCatalogService documentCatalog;
+    private final AnswerCacheService answerCache;
+    private final RequestCoalescerService coalescer;
+    private final RAGResilienceService resilience;
 
     @Autowired
-    public RAGService(WebClient ragApiClient) {
-        this.ragApiClient = ragApiClient;
+    public RAGService(ReactiveRAGService reactiveRAGService, DocumentCatalogService documentCatalog, AnswerCacheService answerCache,
+                      RequestCoalescerService coalescer, RAGResilienceService resilience) {
+        this.reactiveRAGService = reactiveRAGService;
+        this.documentCatalog = documentCatalog;
+        this.answerCache = answerCache;
+        this.coalescer = coalescer;
+        this.resilience = resilience;
     }
 
     public QuestionResponse askQuestion(String question, String documentName) {
-        try {
-            QuestionRequest request = new QuestionRequest(question, documentName);
-
-            QuestionResponse response = ragApiClient
-                    .post()
-                    .uri("/ask")
-                    .bodyValue(request)
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> clientResponse.bodyToMono(String.class)
-                                    .map(body -> new ApiException("HTTP " + clientResponse.statusCode() + ": " + body)))
-                    .bodyToMono(QuestionResponse.class)
-                    .block();
-
-            if (response != null) {
-                // Set API response fields
-                response.setDocument_name(documentName);
-                
-                // Extract document name from metadata if available
-                if (response.getMetadata() != null && response.getMetadata().containsKey("document_name")) {
-                    response.setDocument_name(response.getMetadata().get("document_name").toString());
-                }
-                
-                // Extract source pages for user-friendly display
-                response.extractSourcePages();
-            }
-
-            return response != null ? response : new QuestionResponse();
-
-        } catch (Exception e) {
-            throw new ApiException("Failed to get answer: " + e.getMessage());
-        }
+        return reactiveRAGService.askQuestion(question, documentName).block();
     }
 
     public boolean processDocument(String s3Url, String documentName) {
-        try {
-            Map<String, String> request = Map.of(
-                "s3_url", s3Url,
-                "document_name", documentName
-            );
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = ragApiClient
-                    .post()
-                    .uri("/process-s3")
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-
-            return response != null && Boolean.TRUE.equals(response.get("success"));
-
-        } catch (Exception e) {
-            throw new ApiException("Failed to process document: " + e.getMessage());
-        }
+        return Boolean.TRUE.equals(reactiveRAGService.processDocument(s3Url, documentName).block());
     }
 
     public DocumentsInfoResponse getDocumentsInfo() {
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = ragApiClient
-                    .get()
-                    .uri("/documents/info")
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-            
-            if (response == null) {
-                throw new ApiException("Empty response from RAG /documents/info");
-            }
-            DocumentsInfoResponse dto = new DocumentsInfoResponse();
-            dto.setTotal_documents(((Number) response.getOrDefault("total_documents", 0)).intValue());
-            @SuppressWarnings("unchecked")
-            List<String> documentNames = (List<String>) response.getOrDefault("document_names", java.util.List.of());
-            dto.setDocument_names(documentNames);
-            @SuppressWarnings("unchecked")
-            Map<String, Integer> documentsCount = (Map<String, Integer>) response.getOrDefault("documents_count", java.util.Map.of());
-            dto.setDocuments_count(documentsCount);
-            dto.setVectorstores_ready(((Number) response.getOrDefault("vectorstores_ready", 0)).intValue());
-            dto.setRag_chains_ready(((Number) response.getOrDefault("rag_chains_ready", 0)).intValue());
-            dto.setS3_enabled(Boolean.TRUE.equals(response.get("s3_enabled")));
-            
-            return dto;
-        } catch (Exception e) {
-            throw new ApiException("Failed to get documents info: " + e.getMessage());
-        }
+        return reactiveRAGService.getDocumentsInfo().block();
     }
 
     public boolean documentExists(String documentName) {
+        boolean exists = documentCatalog.contains(documentName);
+
+        // On a miss, re-sync once unless the catalog was refreshed very recently
+        if (!exists && documentCatalog.isRefreshDueOnMiss()) {
+            refreshDocumentCatalog();
+            exists = documentCatalog.contains(documentName);
+        }
+
+        documentCatalog.recordLookup(exists);
+        return exists;
+    }
+
+    /**
+     * Keeps the local document catalog in sync with the RAG backend
+     */
+    @Scheduled(fixedDelayString = "${rag.catalog.refresh-interval-ms:60000}")
+    public void refreshDocumentCatalog() {
+        documentCatalog.markRefreshAttempt();
         try {
             DocumentsInfoResponse documents = getDocumentsInfo();
-            
-            // Check if document exists in the document_names array
-            if (documents.getDocument_names() != null) {
-                return documents.getDocument_names().contains(documentName);
-            }
-            
-            return false;
+            documentCatalog.replaceAll(documents.getDocument_names());
         } catch (Exception e) {
-            return false;
+            documentCatalog.recordRefreshFailure(e.getMessage());
+            log.warn("[RAG] Failed to refresh document catalog: {}", e.getMessage());
         }
     }
 
-    public MaintenanceReminderResponseDTO generateMaintenanceReminders(Integer currentMileage, String documentName) {
-        try {
-            // Create the request body for the RAG API
-            Map<String, Object> requestBody = Map.of(
-                "document_name", documentName,
-                "current_mileage", currentMileage
-            );
-
-            MaintenanceReminderResponseDTO response = ragApiClient
-                    .post()
-                    .uri("/generate-maintenance-reminders")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> clientResponse.bodyToMono(String.class)
-                                    .map(body -> new ApiException("HTTP " + clientResponse.statusCode() + ": " + body)))
-                    .bodyToMono(MaintenanceReminderResponseDTO.class)
-                    .block();
-
-            return response != null ? response : new MaintenanceReminderResponseDTO();
+    public DocumentCatalogStatsResponse getDocumentCatalogStats() {
+        return documentCatalog.getStats();
+    }
 
-        } catch (Exception e) {
-            MaintenanceReminderResponseDTO errorResponse = new MaintenanceReminderResponseDTO();
-            errorResponse.setSuccess(false);
-            errorResponse.setError("RAG API Error: " + e.getMessage());
-            errorResponse.setDocumentName(documentName);
-            errorResponse.setCurrentMileage(currentMileage);
-            return errorResponse;
-        }
+    public AnswerCacheStatsResponse getAnswerCacheStats() {
+        return answerCache.getStats();
+    }
+
+    public CoalescingStatsResponse getCoalescingStats() {
+        return coalescer.getStats();
+    }
+
+    public RAGClientStatsResponse getClientStats() {
+        return resilience.getStats();
+    }
+
+    public MaintenanceReminderResponseDTO generateMaintenanceReminders(Integer currentMileage, String documentName) {
+        return reactiveRAGService.generateMaintenanceReminders(currentMileage, documentName).block();
     }
 }
@@ -0,0 +1,252 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.DTOin.QuestionRequest;
+import com.fkhrayef.motor.DTOout.DocumentsInfoResponse;
+import com.fkhrayef.motor.DTOout.MaintenanceReminderResponseDTO;
+import com.fkhrayef.motor.DTOout.MaintenanceScheduleResponseDTO;
+import com.fkhrayef.motor.DTOout.QuestionResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking calls to the RAG backend.
+ * Nothing here blocks a request thread, callers either compose the Mono or hand it back to Spring MVC.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveRAGService {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_MAP = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_STRING = new ParameterizedTypeReference<>() {
+    };
+
+    @Value("${rag.api.maintenance-schedule-path:/extract-maintenance-schedule}")
+    private String maintenanceSchedulePath = "/extract-maintenance-schedule";
+
+    // Set when the backend answers 404 for the schedule endpoint; it is not asked again until restart
+    private final AtomicBoolean maintenanceScheduleMissing = new AtomicBoolean();
+
+    @Value("${rag.api.ask-stream-path:/ask/stream}")
+    private String askStreamPath = "/ask/stream";
+
+    // Per-operation timeouts, sized to how long each RAG endpoint legitimately takes
+    @Value("${rag.client.timeout.ask-ms:60000}")
+    private long askTimeoutMs = 60_000L;
+
+    @Value("${rag.client.timeout.ask-stream-idle-ms:30000}")
+    private long askStreamIdleTimeoutMs = 30_000L;
+
+    @Value("${rag.client.timeout.process-ms:600000}")
+    private long processTimeoutMs = 600_000L;
+
+    @Value("${rag.client.timeout.documents-info-ms:10000}")
+    private long documentsInfoTimeoutMs = 10_000L;
+
+    @Value("${rag.client.timeout.reminders-ms:120000}")
+    private long remindersTimeoutMs = 120_000L;
+
+    @Value("${rag.client.timeout.schedule-ms:300000}")
+    private long scheduleTimeoutMs = 300_000L;
+
+    private final WebClient ragApiClient;
+    private final DocumentCatalogService documentCatalog;
+    private final AnswerCacheService answerCache;
+    private final RequestCoalescerService coalescer;
+    private final RAGResilienceService resilience;
+
+    public Mono<QuestionResponse> askQuestion(String question, String documentName) {
+        // Identical questions against the same manual that arrive together share one /ask call
+        return coalescer.coalesce("ask", documentName + '\u0000' + AnswerCacheService.normalizeQuestion(question),
+                () -> fetchAnswer(question, documentName));
+    }
+
+    private Mono<QuestionResponse> fetchAnswer(String question, String documentName) {
+        QuestionRequest request = new QuestionRequest(question, documentName);
+
+        return ragApiClient
+                .post()
+                .uri("/ask")
+                .bodyValue(request)
+                .retrieve()
+                // 5xx is left as WebClientResponseException so the circuit breaker counts it as a backend failure
+                .onStatus(HttpStatusCode::is4xxClientError,
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .map(body -> new ApiException("HTTP " + clientResponse.statusCode() + ": " + body)))
+                .bodyToMono(QuestionResponse.class)
+                .transform(call -> resilience.guard("ask", Duration.ofMillis(askTimeoutMs), () -> call))
+                .map(response -> {
+                    // Set API response fields
+                    response.setDocument_name(documentName);
+
+                    // Extract document name from metadata if available
+                    if (response.getMetadata() != null && response.getMetadata().containsKey("document_name")) {
+                        response.setDocument_name(response.getMetadata().get("document_name").toString());
+                    }
+
+                    // Extract source pages for user-friendly display
+                    response.extractSourcePages();
+                    return response;
+                })
+                .defaultIfEmpty(new QuestionResponse())
+                .onErrorMap(e -> new ApiException("Failed to get answer: " + e.getMessage()));
+    }
+
+    /**
+     * Relays the backend's event stream for a question.
+     * The backend sends "token" events with answer chunks and a "sources" event with a JSON array of sources.
+     */
+    public Flux<ServerSentEvent<String>> askQuestionStream(String question, String documentName) {
+        QuestionRequest request = new QuestionRequest(question, documentName);
+
+        return ragApiClient
+                .post()
+                .uri(askStreamPath)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(request)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError,
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .map(body -> new ApiException("HTTP " + clientResponse.statusCode() + ": " + body)))
+                .bodyToFlux(SSE_STRING)
+                .transform(events -> resilience.guardMany("ask-stream", Duration.ofMillis(askStreamIdleTimeoutMs), () -> events))
+                .onErrorMap(e -> new ApiException("Failed to stream answer: " + e.getMessage()));
+    }
+
+    public Mono<Boolean> processDocument(String s3Url, String documentName) {
+        return coalescer.coalesce("process-s3", documentName + '\u0000' + s3Url,
+                () -> sendProcessDocument(s3Url, documentName));
+    }
+
+    private Mono<Boolean> sendProcessDocument(String s3Url, String documentName) {
+        Map<String, String> request = Map.of(
+                "s3_url", s3Url,
+                "document_name", documentName
+        );
+
+        return ragApiClient
+                .post()
+                .uri("/process-s3")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(JSON_MAP)
+                .transform(call -> resilience.guard("process-s3", Duration.ofMillis(processTimeoutMs), () -> call))
+                .map(response -> Boolean.TRUE.equals(response.get("success")))
+                .defaultIfEmpty(false)
+                .doOnNext(success -> {
+                    if (success) {
+                        // Make the new manual visible to existence checks without waiting for the next refresh
+                        documentCatalog.add(documentName);
+                        // A re-processed manual may answer differently
+                        answerCache.invalidateDocument(documentName);
+                    }
+                })
+                .onErrorMap(e -> new ApiException("Failed to process document: " + e.getMessage()));
+    }
+
+    public Mono<DocumentsInfoResponse> getDocumentsInfo() {
+        // Catalog refreshes (scheduled, on-miss) and admin listings all collapse into one fetch
+        return coalescer.coalesce("documents-info", "", this::fetchDocumentsInfo);
+    }
+
+    private Mono<DocumentsInfoResponse> fetchDocumentsInfo() {
+        return ragApiClient
+                .get()
+                .uri("/documents/info")
+                .retrieve()
+                .bodyToMono(JSON_MAP)
+                .transform(call -> resilience.guard("documents-info", Duration.ofMillis(documentsInfoTimeoutMs), () -> call))
+                .switchIfEmpty(Mono.error(new ApiException("Empty response from RAG /documents/info")))
+                .map(this::toDocumentsInfo)
+                .onErrorMap(e -> new ApiException("Failed to get documents info: " + e.getMessage()));
+    }
+
+    public Mono<MaintenanceReminderResponseDTO> generateMaintenanceReminders(Integer currentMileage, String documentName) {
+        return coalescer.coalesce("maintenance-reminders", documentName + '\u0000' + currentMileage,
+                () -> fetchMaintenanceReminders(currentMileage, documentName));
+    }
+
+    private Mono<MaintenanceReminderResponseDTO> fetchMaintenanceReminders(Integer currentMileage, String documentName) {
+        // Create the request body for the RAG API
+        Map<String, Object> requestBody = Map.of(
+                "document_name", documentName,
+                "current_mileage", currentMileage
+        );
+
+        return ragApiClient
+                .post()
+                .uri("/generate-maintenance-reminders")
+                .bodyValue(requestBody)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError,
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .map(body -> new ApiException("HTTP " + clientResponse.statusCode() + ": " + body)))
+                .bodyToMono(MaintenanceReminderResponseDTO.class)
+                .transform(call -> resilience.guard("maintenance-reminders", Duration.ofMillis(remindersTimeoutMs), () -> call))
+                .defaultIfEmpty(new MaintenanceReminderResponseDTO())
+                .onErrorResume(e -> {
+                    MaintenanceReminderResponseDTO errorResponse = new MaintenanceReminderResponseDTO();
+                    errorResponse.setSuccess(false);
+                    errorResponse.setError("RAG API Error: " + e.getMessage());
+                    errorResponse.setDocumentName(documentName);
+                    errorResponse.setCurrentMileage(currentMileage);
+                    return Mono.just(errorResponse);
+                });
+    }
+
+    /**
+     * Asks the backend for the manual's structured maintenance schedule (task + km/month intervals).
+     * Independent of any car, so it only has to be done once per document.
+     */
+    public Mono<MaintenanceScheduleResponseDTO> extractMaintenanceSchedule(String documentName) {
+        if (!isMaintenanceScheduleAvailable()) {
+            return Mono.error(new ApiException("RAG backend does not serve " + maintenanceSchedulePath));
+        }
+        return coalescer.coalesce("maintenance-schedule", documentName, () -> ragApiClient
+                .post()
+                .uri(maintenanceSchedulePath)
+                .bodyValue(Map.of("document_name", documentName))
+                .retrieve()
+                .onStatus(status -> status.value() == 404, clientResponse -> {
+                    maintenanceScheduleMissing.set(true);
+                    return Mono.just(new ApiException("RAG backend does not serve " + maintenanceSchedulePath));
+                })
+                .onStatus(HttpStatusCode::is4xxClientError,
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .map(body -> new ApiException("HTTP " + clientResponse.statusCode() + ": " + body)))
+                .bodyToMono(MaintenanceScheduleResponseDTO.class)
+                .transform(call -> resilience.guard("maintenance-schedule", Duration.ofMillis(scheduleTimeoutMs), () -> call))
+                .switchIfEmpty(Mono.error(new ApiException("Empty response from RAG maintenance schedule")))
+                .onErrorMap(e -> new ApiException("Failed to extract maintenance schedule: " + e.getMessage())));
+    }
+
+    public boolean isMaintenanceScheduleAvailable() {
+        return !maintenanceScheduleMissing.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private DocumentsInfoResponse toDocumentsInfo(Map<String, Object> response) {
+        DocumentsInfoResponse dto = new DocumentsInfoResponse();
+        dto.setTotal_documents(((Number) response.getOrDefault("total_documents", 0)).intValue());
+        dto.setDocument_names((List<String>) response.getOrDefault("document_names", List.of()));
+        dto.setDocuments_count((Map<String, Integer>) response.getOrDefault("documents_count", Map.of()));
+        dto.setVectorstores_ready(((Number) response.getOrDefault("vectorstores_ready", 0)).intValue());
+        dto.setRag_chains_ready(((Number) response.getOrDefault("rag_chains_ready", 0)).intValue());
+        dto.setS3_enabled(Boolean.TRUE.equals(response.get("s3_enabled")));
+        return dto;
+    }
+}
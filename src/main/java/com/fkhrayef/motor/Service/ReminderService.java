@@ -2,34 +2,50 @@ package com.fkhrayef.motor.Service;
 
 import com.fkhrayef.motor.Api.ApiException;
 import com.fkhrayef.motor.DTOin.ReminderDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
 import com.fkhrayef.motor.DTOout.MaintenanceReminderResponseDTO;
 import com.fkhrayef.motor.Model.Car;
+import com.fkhrayef.motor.Model.MaintenanceScheduleItem;
 import com.fkhrayef.motor.Model.Reminder;
 import com.fkhrayef.motor.Model.User;
 import com.fkhrayef.motor.Repository.CarRepository;
 import com.fkhrayef.motor.Repository.ReminderRepository;
 import com.fkhrayef.motor.Repository.UserRepository;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
 public class ReminderService {
 
     private final ReminderRepository reminderRepository;
     private final CarRepository carRepository;
     private final RAGService ragService;
-    private final WhatsAppService whatsappService;
-    private final EmailService emailService;
+    private final ReactiveRAGService reactiveRAGService;
+    private final NotificationOutboxService notificationOutbox;
     private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MaintenanceScheduleService maintenanceScheduleService;
+    private final KeysetPaginationService pagination;
+    private final SchedulerLockService schedulerLock;
+
+    @Value("${reminders.mileage.page-size:500}")
+    private int mileagePageSize = 500;
 
     private void validateSubscription(Integer userId) {
         User user = userRepository.findUserById(userId);
@@ -49,8 +65,10 @@ public class ReminderService {
         }
     }
 
-    public List<Reminder> getAllReminders(){
-        return reminderRepository.findAll();
+    public KeysetPage<Reminder> getAllReminders(String cursor, Integer size) {
+        int pageSize = pagination.pageSize(size);
+        List<Reminder> rows = reminderRepository.findAllByIdGreaterThanOrderByIdAsc(pagination.afterId(cursor), pagination.fetchLimit(pageSize));
+        return pagination.page(rows, pageSize, Reminder::getId);
     }
 
     public void addReminder(Integer userId, Integer carId, ReminderDTO reminderDTO) {
@@ -150,8 +168,7 @@ public class ReminderService {
         return reminderRepository.findRemindersByCarId(car.getId());
     }
 
-    @Transactional
-    public void generateAndSaveMaintenanceReminders(Integer userId, Integer carId) {
+    public Mono<Void> generateAndSaveMaintenanceReminders(Integer userId, Integer carId) {
         User user = userRepository.findUserById(userId);
         if (user == null){
             throw new ApiException("UNAUTHENTICATED USER");
@@ -187,10 +204,30 @@ public class ReminderService {
             throw new ApiException("Manual for this car is not available. Please upload the manual first.");
         }
 
-        // Call RAG API to get maintenance reminders
-        MaintenanceReminderResponseDTO ragResponse = ragService.generateMaintenanceReminders(car.getMileage(), documentName);
+        // The manual's schedule is already stored => evaluate it locally for this car, no RAG call needed
+        List<MaintenanceScheduleItem> schedule = maintenanceScheduleService.getSchedule(documentName);
+        if (!schedule.isEmpty()) {
+            MaintenanceReminderResponseDTO localReminders = maintenanceScheduleService.computeReminders(
+                    documentName, schedule, car.getMileage(), car.getPurchaseDate(), LocalDate.now());
+            return Mono.fromRunnable(() -> transactionTemplate.executeWithoutResult(status ->
+                            saveGeneratedReminders(carId, localReminders)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .then();
+        }
+
+        // No schedule yet: extract it in the background for the next cars, and answer this one through RAG
+        maintenanceScheduleService.requestExtraction(documentName);
+
+        // Call RAG API to get maintenance reminders, then persist on a worker thread (JPA is blocking)
+        return reactiveRAGService.generateMaintenanceReminders(car.getMileage(), documentName)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(ragResponse -> transactionTemplate.executeWithoutResult(status ->
+                        saveGeneratedReminders(carId, ragResponse)))
+                .then();
+    }
 
-        if (ragResponse == null || !ragResponse.getSuccess()) {
+    private void saveGeneratedReminders(Integer carId, MaintenanceReminderResponseDTO ragResponse) {
+        if (ragResponse == null || !Boolean.TRUE.equals(ragResponse.getSuccess())) {
             throw new ApiException("Failed to generate maintenance reminders: " +
                 (ragResponse != null ? ragResponse.getError() : "Unknown error"));
         }
@@ -198,7 +235,19 @@ public class ReminderService {
             throw new ApiException("RAG returned no maintenance reminders for this car/manual.");
         }
 
-        // Convert RAG response to Reminder entities and save in batch
+        // Re-read the car inside this transaction
+        Car car = carRepository.findCarById(carId);
+        if (car == null) {
+            throw new ApiException("Car not found");
+        }
+
+        // Existing keys for this car in one query instead of one exists-check per reminder
+        Set<String> existingKeys = new HashSet<>();
+        for (Object[] key : reminderRepository.findReminderKeysByCarIdAndType(carId, "maintenance")) {
+            existingKeys.add(reminderKey((LocalDate) key[0], (String) key[1], (Integer) key[2]));
+        }
+
+        // Convert RAG response to Reminder entities, skipping ones already stored (or repeated in the response)
         List<Reminder> toSave = ragResponse.getReminders().stream()
                 .map(reminderData -> {
                     Reminder reminder = new Reminder();
@@ -212,14 +261,16 @@ public class ReminderService {
                     reminder.setIsSent(false);
                     return reminder;
                 })
-                .filter(reminder -> {
-                    // Check if reminder already exists (same car, type, dueDate, message)
-                    return !reminderRepository.existsByCarAndTypeAndDueDateAndMessage(
-                            car, "maintenance", reminder.getDueDate(), reminder.getMessage());
-                })
+                .filter(reminder -> existingKeys.add(reminderKey(reminder.getDueDate(), reminder.getMessage(), reminder.getMileage())))
                 .collect(Collectors.toList());
 
-        reminderRepository.saveAll(toSave);
+        // One JDBC batch for all new reminders
+        reminderRepository.batchInsert(toSave);
+    }
+
+    // A km-based reminder is the same one at the same mileage: its projected due date moves as the car's usage changes
+    private String reminderKey(LocalDate dueDate, String message, Integer mileage) {
+        return mileage != null ? "km|" + mileage + "|" + message : dueDate + "|" + message;
     }
 
     // Helper method to generate document name from car details (same as CarAIService)
@@ -236,29 +287,32 @@ public class ReminderService {
      */
     @Scheduled(cron = "0 * * * * *") // Every minute (for testing)
     public void sendReminderNotifications() {
+        schedulerLock.runPartitioned("reminder-notifications", this::sendReminderNotificationsFor);
+    }
+
+    private void sendReminderNotificationsFor(SchedulerLockService.Partition partition) {
         try {
-            log.info("[Scheduler] Starting reminder notification check...");
+            log.info("[Scheduler] Starting reminder notification check (partition {}/{})...", partition.index(), partition.count());
             
             LocalDate today = LocalDate.now();
             LocalDate nextWeek = today.plusDays(7);
             LocalDate tomorrow = today.plusDays(1);
             
-            // Fetch once
-            List<Reminder> allReminders = reminderRepository.findAll();
+            // Only the reminders due tomorrow through next week, with car and user already loaded
+            List<Reminder> dueReminders = reminderRepository.findDueForNotification(tomorrow, nextWeek,
+                    partition.count(), partition.index());
 
             // Daily: due tomorrow (send regardless of isSent)
-            List<Reminder> tomorrowReminders = allReminders.stream()
-                    .filter(r -> r.getDueDate() != null)
-                    .filter(r -> r.getDueDate().isEqual(tomorrow))
-                    .collect(Collectors.toList());
-
-            // Weekly: due in 2..7 days (exclude 'tomorrow' to avoid duplicate sends)
-            List<Reminder> upcomingReminders = allReminders.stream()
-                    .filter(r -> Boolean.FALSE.equals(r.getIsSent()))
-                    .filter(r -> r.getDueDate() != null)
-                    .filter(r -> r.getDueDate().isAfter(tomorrow))      // > tomorrow
-                    .filter(r -> !r.getDueDate().isAfter(nextWeek))     // <= nextWeek
-                    .collect(Collectors.toList());
+            List<Reminder> tomorrowReminders = new ArrayList<>();
+            // Weekly: due in 2..7 days and not sent yet (the query already excludes sent ones)
+            List<Reminder> upcomingReminders = new ArrayList<>();
+            for (Reminder reminder : dueReminders) {
+                if (reminder.getDueDate().isEqual(tomorrow)) {
+                    tomorrowReminders.add(reminder);
+                } else {
+                    upcomingReminders.add(reminder);
+                }
+            }
             
             // Send notifications for reminders due in next week
             for (Reminder reminder : upcomingReminders) {
@@ -304,12 +358,12 @@ public class ReminderService {
             // Send WhatsApp notification
             try {
                 if (user.getPhone() != null && !user.getPhone().trim().isEmpty()) {
-                    whatsappService.sendWhatsAppMessage(message, user.getPhone());
-                    log.info("[Scheduler] WhatsApp notification sent to user {} for reminder ID {}",
+                    notificationOutbox.enqueueWhatsApp(user.getPhone(), message);
+                    log.info("[Scheduler] WhatsApp notification queued for user {} for reminder ID {}",
                             user.getId(), reminder.getId());
                 }
             } catch (Exception e) {
-                log.error("[Scheduler] Failed to send WhatsApp notification: {}", e.getMessage());
+                log.error("[Scheduler] Failed to queue WhatsApp notification: {}", e.getMessage());
             }
         } else {
 
@@ -317,12 +371,12 @@ public class ReminderService {
             try {
                 if (user.getEmail() != null && !user.getEmail().trim().isEmpty()) {
                     String subject = "تذكير صيانة - " + car.getMake() + " " + car.getModel();
-                    emailService.sendEmail(user.getEmail(), subject, message);
-                    log.info("[Scheduler] Email notification sent to user {} for reminder ID {}",
+                    notificationOutbox.enqueueEmail(user.getEmail(), subject, message);
+                    log.info("[Scheduler] Email notification queued for user {} for reminder ID {}",
                             user.getId(), reminder.getId());
                 }
             } catch (Exception e) {
-                log.error("[Scheduler] Failed to send email notification: {}", e.getMessage());
+                log.error("[Scheduler] Failed to queue email notification: {}", e.getMessage());
             }
         }
         
@@ -410,41 +464,63 @@ public class ReminderService {
      */
     @Scheduled(cron = "0 0 9 * * MON") // كل يوم اثنين الساعة 9 صباحاً
     public void sendWeeklyMileageReminders() {
-        log.info("[Scheduler] Starting weekly mileage reminders...");
+        schedulerLock.runPartitioned("weekly-mileage-reminders", this::sendWeeklyMileageRemindersFor);
+    }
 
-        List<Car> cars = carRepository.findAll();
-        for (Car car : cars) {
-            if (car.getUser() == null) {
-                continue;
+    // One message per user listing all of their cars; cars are read a page at a time in owner order
+    private void sendWeeklyMileageRemindersFor(SchedulerLockService.Partition partition) {
+        log.info("[Scheduler] Starting weekly mileage reminders (partition {}/{})...", partition.index(), partition.count());
+
+        int afterUserId = 0;
+        int afterCarId = 0;
+        int users = 0;
+        List<Object[]> userCars = new ArrayList<>();
+        List<Object[]> page;
+        do {
+            page = carRepository.findMileageReminderRows(afterUserId, afterCarId,
+                    partition.count(), partition.index(), Limit.of(mileagePageSize));
+            for (Object[] row : page) {
+                // A user's cars can run over into the next page, so a message goes out once the owner changes
+                if (!userCars.isEmpty() && !userCars.get(0)[1].equals(row[1])) {
+                    users += queueMileageReminder(userCars);
+                    userCars.clear();
+                }
+                userCars.add(row);
             }
-
-            User user = car.getUser();
-            if (user.getPhone() == null || user.getPhone().isBlank()){
-                continue;
+            if (!page.isEmpty()) {
+                Object[] last = page.get(page.size() - 1);
+                afterUserId = (Integer) last[1];
+                afterCarId = (Integer) last[0];
             }
+        } while (page.size() == mileagePageSize);
 
-            String message = buildMileageReminderMessage(car);
+        if (!userCars.isEmpty()) {
+            users += queueMileageReminder(userCars);
+        }
+        log.info("[Scheduler] Weekly mileage reminders queued for {} users", users);
+    }
 
-            try {
-                whatsappService.sendWhatsAppMessage(message, user.getPhone());
-                log.info("[Scheduler] Weekly mileage reminder sent to user {} for car {}",
-                        user.getId(), car.getId());
-            } catch (Exception e) {
-                log.error("[Scheduler] Failed to send weekly mileage reminder to user {}: {}",
-                        user.getId(), e.getMessage());
-            }
+    // Rows are (car id, user id, phone, make, model, year, mileage), all for the same user
+    private int queueMileageReminder(List<Object[]> userCars) {
+        Object userId = userCars.get(0)[1];
+        try {
+            notificationOutbox.enqueueWhatsApp((String) userCars.get(0)[2], buildMileageReminderMessage(userCars));
+            return 1;
+        } catch (Exception e) {
+            log.error("[Scheduler] Failed to queue weekly mileage reminder for user {}: {}", userId, e.getMessage());
+            return 0;
         }
     }
 
-    private String buildMileageReminderMessage(Car car) {
+    private String buildMileageReminderMessage(List<Object[]> userCars) {
         StringBuilder msg = new StringBuilder();
         msg.append("🚗 تذكير أسبوعي لتحديث عداد السيارة\n\n");
-        msg.append("📋 تفاصيل السيارة:\n");
-        msg.append("• الماركة: ").append(car.getMake()).append("\n");
-        msg.append("• الموديل: ").append(car.getModel()).append("\n");
-        msg.append("• السنة: ").append(car.getYear()).append("\n\n");
-        msg.append("🔢 العداد الحالي المسجل: ").append(car.getMileage() != null ? car.getMileage() : "غير مسجل").append("\n\n");
-        msg.append("💡 يرجى إدخال القراءة الجديدة للعداد عبر التطبيق للحفاظ على سجل الصيانة محدثاً.");
+        msg.append(userCars.size() == 1 ? "📋 تفاصيل السيارة:\n" : "📋 سياراتك:\n");
+        for (Object[] car : userCars) {
+            msg.append("• ").append(car[3]).append(" ").append(car[4]).append(" ").append(car[5]);
+            msg.append(" - العداد الحالي المسجل: ").append(car[6] != null ? car[6] : "غير مسجل").append("\n");
+        }
+        msg.append("\n💡 يرجى إدخال القراءة الجديدة للعداد عبر التطبيق للحفاظ على سجل الصيانة محدثاً.");
         return msg.toString();
     }
 
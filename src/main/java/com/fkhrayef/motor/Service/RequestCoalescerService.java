@@ -0,0 +1,65 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.DTOout.CoalescingStatsResponse;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for RAG calls: while a call for a key is in flight, identical calls
+ * subscribe to the same upstream request instead of sending their own.
+ * Entries live only until the call terminates, results are not kept afterwards.
+ */
+@Service
+public class RequestCoalescerService {
+
+    private final Map<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong upstreamCalls = new AtomicLong();
+    private final Map<String, AtomicLong> coalescedByOperation = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String operation, String key, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            requests.incrementAndGet();
+            String flightKey = operation + '\u0000' + key;
+
+            boolean[] leader = {false};
+            Mono<T> shared = (Mono<T>) inFlight.computeIfAbsent(flightKey, k -> {
+                leader[0] = true;
+                upstreamCalls.incrementAndGet();
+                // share(): one upstream subscription, the result is replayed to everyone who joined
+                return Mono.defer(call)
+                        .doFinally(signal -> inFlight.remove(k))
+                        .share();
+            });
+
+            if (!leader[0]) {
+                coalescedByOperation.computeIfAbsent(operation, op -> new AtomicLong()).incrementAndGet();
+            }
+            return shared;
+        });
+    }
+
+    public CoalescingStatsResponse getStats() {
+        long requestCount = requests.get();
+        Map<String, Long> byOperation = new TreeMap<>();
+        coalescedByOperation.forEach((operation, count) -> byOperation.put(operation, count.get()));
+        long coalesced = byOperation.values().stream().mapToLong(Long::longValue).sum();
+
+        CoalescingStatsResponse stats = new CoalescingStatsResponse();
+        stats.setRequests(requestCount);
+        stats.setUpstreamCalls(upstreamCalls.get());
+        stats.setCoalesced(coalesced);
+        stats.setCoalescedRatio(requestCount == 0 ? 0.0 : (double) coalesced / requestCount);
+        stats.setInFlight(inFlight.size());
+        stats.setCoalescedByOperation(byOperation);
+        return stats;
+    }
+}
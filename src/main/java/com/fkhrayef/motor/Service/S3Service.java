@@ -13,6 +13,7 @@ import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 @Service
 public class S3Service {
@@ -45,6 +46,20 @@ public class S3Service {
         return generateS3Url(key);
     }
 
+    // upload catalog file from a staged copy on disk (streamed, not buffered in memory)
+    public String uploadCatalogFile(Path file, String contentType, String catalogPath) {
+        String key = "catalogs/" + catalogPath;
+
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .build(),
+                RequestBody.fromFile(file));
+
+        return generateS3Url(key);
+    }
+
     // generate S3 URL for a given key
     public String generateS3Url(String key) {
         return String.format("https://%s.s3.eu-central-1.amazonaws.com/%s", bucketName, key);
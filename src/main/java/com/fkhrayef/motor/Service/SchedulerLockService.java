@@ -0,0 +1,176 @@
+package com.fkhrayef.motor.Service;
+
+import com.fkhrayef.motor.Repository.SchedulerLockRepository;
+import com.fkhrayef.motor.Repository.SchedulerNodeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Coordinates scheduled jobs across app instances through two tables: scheduler_lock holds a lease per job
+ * (or job partition), scheduler_node holds a heartbeat per instance. Exclusive jobs run on whichever node takes
+ * the lease; partitioned jobs split users by id into a fixed number of buckets with one lease each, and every node
+ * runs whichever buckets it can take.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SchedulerLockService {
+
+    private final SchedulerLockRepository lockRepository;
+    private final SchedulerNodeRepository nodeRepository;
+
+    @Value("${scheduler.node-id:}")
+    private String configuredNodeId = "";
+
+    // Upper bound on a run; if the node dies the lease frees itself after this
+    @Value("${scheduler.lock.lock-at-most-ms:1800000}")
+    private long lockAtMostMs = 1_800_000L;
+
+    // Lower bound, covers clock skew between nodes firing the same cron
+    @Value("${scheduler.lock.lock-at-least-ms:30000}")
+    private long lockAtLeastMs = 30_000L;
+
+    // A node without a heartbeat for this long no longer counts as live
+    @Value("${scheduler.node-ttl-ms:45000}")
+    private long nodeTtlMs = 45_000L;
+
+    @Value("${scheduler.partitioning.enabled:true}")
+    private boolean partitioningEnabled = true;
+
+    // Fixed so every node agrees on which users a bucket holds, however many nodes it currently sees
+    @Value("${scheduler.partitioning.buckets:8}")
+    private int bucketCount = 8;
+
+    private String nodeId;
+
+    /**
+     * One bucket of users: users with id % count == index
+     */
+    public record Partition(int index, int count) {
+        public static final Partition ALL = new Partition(0, 1);
+
+        public boolean owns(Integer userId) {
+            return userId != null && Math.floorMod(userId, count) == index;
+        }
+    }
+
+    public String getNodeId() {
+        if (nodeId == null) {
+            nodeId = configuredNodeId == null || configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId;
+        }
+        return nodeId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void register() {
+        heartbeat();
+        log.info("[Scheduler] Node {} registered", getNodeId());
+    }
+
+    @Scheduled(fixedDelayString = "${scheduler.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        try {
+            nodeRepository.heartbeat(getNodeId());
+            // Nodes that stopped without deregistering
+            nodeRepository.deleteSilentFor(nodeTtlMs * 10);
+        } catch (Exception e) {
+            log.error("[Scheduler] Heartbeat failed for node {}: {}", getNodeId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void deregister() {
+        try {
+            nodeRepository.deleteNode(getNodeId());
+        } catch (Exception e) {
+            log.warn("[Scheduler] Could not deregister node {}: {}", getNodeId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the job if no other node holds its lease; returns false when skipped
+     */
+    public boolean runExclusive(String jobName, Runnable job) {
+        if (!tryAcquire(jobName)) {
+            log.debug("[Scheduler] {} is held by another node, skipping", jobName);
+            return false;
+        }
+        try {
+            job.run();
+        } finally {
+            release(jobName);
+        }
+        return true;
+    }
+
+    /**
+     * Runs the job once per bucket this node can lease; returns false when every bucket was held elsewhere.
+     * Bucket leases are kept for at least lock-at-least-ms, so nodes firing the same schedule split the buckets
+     * between them instead of repeating them. The live nodes only decide where each node starts in the ring.
+     */
+    public boolean runPartitioned(String jobName, Consumer<Partition> job) {
+        int buckets = partitioningEnabled ? Math.max(bucketCount, 1) : 1;
+        int start = startBucket(buckets);
+        boolean ranAny = false;
+        for (int i = 0; i < buckets; i++) {
+            Partition partition = new Partition((start + i) % buckets, buckets);
+            ranAny |= runExclusive(jobName + "#" + partition.index() + "/" + partition.count(), () -> job.accept(partition));
+        }
+        return ranAny;
+    }
+
+    // Spreads the starting bucket by this node's position among the live nodes
+    private int startBucket(int buckets) {
+        if (buckets == 1) {
+            return 0;
+        }
+        try {
+            List<String> live = nodeRepository.findLiveNodeIds(nodeTtlMs);
+            int index = live.indexOf(getNodeId());
+            return index < 0 ? 0 : index * buckets / live.size();
+        } catch (Exception e) {
+            log.warn("[Scheduler] Could not read live nodes, starting at bucket 0: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private boolean tryAcquire(String lockName) {
+        try {
+            lockRepository.insertIfMissing(lockName);
+            return lockRepository.tryAcquire(lockName, getNodeId(), lockAtMostMs) == 1;
+        } catch (Exception e) {
+            log.error("[Scheduler] Could not acquire lock {}: {}", lockName, e.getMessage());
+            return false;
+        }
+    }
+
+    private void release(String lockName) {
+        try {
+            lockRepository.release(lockName, getNodeId(), lockAtLeastMs);
+        } catch (Exception e) {
+            log.warn("[Scheduler] Could not release lock {}, it expires on its own: {}", lockName, e.getMessage());
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        String id = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return id.length() > 100 ? id.substring(id.length() - 100) : id;
+    }
+}
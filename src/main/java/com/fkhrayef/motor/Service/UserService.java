@@ -2,16 +2,20 @@ package com.fkhrayef.motor.Service;
 
 import com.fkhrayef.motor.Api.ApiException;
 import com.fkhrayef.motor.DTOin.UserDTO;
+import com.fkhrayef.motor.DTOout.KeysetPage;
+import com.fkhrayef.motor.Event.UserCityChangedEvent;
 import com.fkhrayef.motor.Model.Subscription;
 import com.fkhrayef.motor.Model.User;
 import com.fkhrayef.motor.Repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -19,9 +23,13 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final S3Service s3Service;
+    private final KeysetPaginationService pagination;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public KeysetPage<User> getAllUsers(String cursor, Integer size) {
+        int pageSize = pagination.pageSize(size);
+        List<User> rows = userRepository.findAllByIdGreaterThanOrderByIdAsc(pagination.afterId(cursor), pagination.fetchLimit(pageSize));
+        return pagination.page(rows, pageSize, User::getId);
     }
 
     public void register(UserDTO userDTO) {
@@ -53,6 +61,8 @@ public class UserService {
             throw new ApiException("User not found");
         }
 
+        boolean cityChanged = !Objects.equals(user.getCity(), userDTO.getCity());
+
         user.setPhone(userDTO.getPhone());
         user.setName(userDTO.getName());
         user.setEmail(userDTO.getEmail());
@@ -60,6 +70,9 @@ public class UserService {
         user.setCity(userDTO.getCity());
 
         userRepository.save(user);
+        if (cityChanged) {
+            eventPublisher.publishEvent(new UserCityChangedEvent(user.getId()));
+        }
     }
 
     public void deleteUser(Integer userId, Integer id) {
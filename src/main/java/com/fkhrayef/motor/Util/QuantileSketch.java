@@ -0,0 +1,127 @@
+package com.fkhrayef.motor.Util;
+
+/**
+ * Fixed-size quantile sketch over non-negative values using logarithmic buckets: every value is counted in the
+ * bucket [gamma^(i-1), gamma^i), so any quantile is returned within the configured relative error.
+ * Sketches with the same parameters can be merged, and values can be removed again when the underlying data changes.
+ */
+public class QuantileSketch {
+
+    private final double relativeAccuracy;
+    private final double maxValue;
+    private final double gamma;
+    private final double logGamma;
+    private final long[] buckets;
+    // Values below 1 (e.g. cars without any maintenance cost)
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch(double relativeAccuracy, double maxValue) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy must be between 0 and 1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxValue = maxValue;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.buckets = new long[(int) Math.ceil(Math.log(maxValue) / logGamma) + 1];
+    }
+
+    public QuantileSketch emptyCopy() {
+        return new QuantileSketch(relativeAccuracy, maxValue);
+    }
+
+    public void add(double value) {
+        if (value < 1) {
+            zeroCount++;
+        } else {
+            buckets[indexOf(value)]++;
+        }
+        count++;
+    }
+
+    /**
+     * Removes a value previously added; ignored if its bucket is already empty
+     */
+    public void remove(double value) {
+        if (value < 1) {
+            if (zeroCount == 0) {
+                return;
+            }
+            zeroCount--;
+        } else {
+            int index = indexOf(value);
+            if (buckets[index] == 0) {
+                return;
+            }
+            buckets[index]--;
+        }
+        count--;
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.buckets.length != buckets.length || other.gamma != gamma) {
+            throw new IllegalArgumentException("Only sketches with the same accuracy and range can be merged");
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Value at quantile q (0..1), 0 for an empty sketch
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.round(q * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (rank < seen) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(buckets.length - 1);
+    }
+
+    /**
+     * Counts per fixed-width bin starting at 0; everything beyond the last bin is counted in it
+     */
+    public long[] histogram(double binWidth, int maxBins) {
+        long[] bins = new long[maxBins];
+        bins[0] += zeroCount;
+        int last = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] == 0) {
+                continue;
+            }
+            int bin = (int) Math.min(maxBins - 1, Math.floor(valueOf(i) / binWidth));
+            bins[bin] += buckets[i];
+            last = Math.max(last, bin);
+        }
+        long[] trimmed = new long[last + 1];
+        System.arraycopy(bins, 0, trimmed, 0, last + 1);
+        return trimmed;
+    }
+
+    private int indexOf(double value) {
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        return Math.min(Math.max(index, 0), buckets.length - 1);
+    }
+
+    // Midpoint of bucket i that keeps the relative error within relativeAccuracy
+    private double valueOf(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+}
@@ -0,0 +1,40 @@
+package com.fkhrayef.motor.Util;
+
+/**
+ * Rate limiter allowing ratePerSecond operations on average with bursts of up to capacity.
+ * Callers that find the bucket empty reserve their token and sleep until it has been refilled.
+ */
+public class TokenBucket {
+
+    private final double ratePerSecond;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = Math.max(1, capacity);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Blocks until a token is available; a non-positive rate means unlimited
+     */
+    public void acquire() throws InterruptedException {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerSecond / 1_000_000_000.0);
+            lastRefillNanos = now;
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / ratePerSecond * 1_000_000_000.0);
+        }
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+}
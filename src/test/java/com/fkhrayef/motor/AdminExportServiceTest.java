@@ -0,0 +1,108 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import com.fkhrayef.motor.Repository.PaymentRepository;
+import com.fkhrayef.motor.Repository.UserRepository;
+import com.fkhrayef.motor.Service.AdminExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AdminExportServiceTest {
+
+    @InjectMocks
+    AdminExportService adminExportService;
+
+    @Mock
+    UserRepository userRepository;
+    @Mock
+    CarRepository carRepository;
+    @Mock
+    MaintenanceRepository maintenanceRepository;
+    @Mock
+    PaymentRepository paymentRepository;
+    @Mock
+    TransactionTemplate transactionTemplate;
+    @Mock
+    EntityManager entityManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        lenient().doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private String run(String entity, String format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        adminExportService.export(entity, format).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void ndjsonWritesOneObjectPerRowTest() throws Exception {
+        when(maintenanceRepository.streamExportRows()).thenReturn(Stream.<Object[]>of(
+                new Object[]{1, 7, "MAINTENANCE", "Oil change", LocalDate.of(2025, 3, 18), 27000, 250.0, null, null, null}));
+
+        String body = run("maintenances", "ndjson");
+
+        Assertions.assertEquals("{\"id\":1,\"carId\":7,\"recordType\":\"MAINTENANCE\",\"serviceType\":\"Oil change\","
+                + "\"serviceDate\":\"2025-03-18\",\"mileage\":27000,\"invoiceAmount\":250.0,\"notes\":null,"
+                + "\"createdAt\":null,\"updatedAt\":null}\n", body);
+    }
+
+    @Test
+    public void csvWritesHeaderAndEscapesValuesTest() throws Exception {
+        when(userRepository.streamExportRows()).thenReturn(Stream.<Object[]>of(
+                new Object[]{1, "0500000000", "Smith, \"Jo\"", "jo@example.com", "Riyadh", "USER", null, null, null}));
+
+        String body = run("users", "CSV");
+
+        Assertions.assertEquals("id,phone,name,email,city,role,licenseExpiry,createdAt,updatedAt\r\n"
+                + "1,0500000000,\"Smith, \"\"Jo\"\"\",jo@example.com,Riyadh,USER,,,\r\n", body);
+    }
+
+    @Test
+    public void persistenceContextClearedPeriodicallyTest() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= 2500; i++) {
+            rows.add(new Object[]{i, null, "Nissan", "Altima", 2022, null, 1000, null, null, null, null, true, null, null});
+        }
+        when(carRepository.streamExportRows()).thenReturn(rows.stream());
+
+        String body = run("cars", "ndjson");
+
+        Assertions.assertEquals(2500, body.lines().count());
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    public void unknownEntityOrFormatRejectedTest() {
+        Assertions.assertThrows(ApiException.class, () -> adminExportService.export("subscriptions", "ndjson"));
+        Assertions.assertThrows(ApiException.class, () -> adminExportService.export("payments", "xml"));
+        verifyNoInteractions(paymentRepository);
+    }
+}
@@ -0,0 +1,104 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Event.CarChangedEvent;
+import com.fkhrayef.motor.Event.MaintenanceChangedEvent;
+import com.fkhrayef.motor.Event.UserCityChangedEvent;
+import com.fkhrayef.motor.Service.AnalyticsResultCacheService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AnalyticsResultCacheServiceTest {
+
+    AnalyticsResultCacheService analyticsCache;
+
+    AtomicInteger computations;
+
+    @BeforeEach
+    void setup() {
+        analyticsCache = new AnalyticsResultCacheService();
+        computations = new AtomicInteger();
+    }
+
+    private String typicalMileage(String make, String model, String city) {
+        return analyticsCache.getOrCompute("typical-mileage", make, model, List.of(city),
+                () -> "result " + computations.incrementAndGet());
+    }
+
+    @Test
+    public void hitForNormalizedFiltersTest() {
+        Assertions.assertEquals("result 1", typicalMileage("Nissan", "Altima", "Riyadh"));
+        Assertions.assertEquals("result 1", typicalMileage("Nissan", "Altima", "  riyadh "));
+        Assertions.assertEquals("result 2", typicalMileage("Nissan", "Altima", "Jeddah"));
+
+        Assertions.assertEquals(1, analyticsCache.getStats().getHits());
+        Assertions.assertEquals(2, analyticsCache.getStats().getMisses());
+    }
+
+    @Test
+    public void maintenanceWriteInvalidatesOnlyThatModelTest() {
+        typicalMileage("Nissan", "Altima", "Riyadh");
+        typicalMileage("Toyota", "Camry", "Riyadh");
+
+        analyticsCache.onMaintenanceChanged(new MaintenanceChangedEvent(1, "Nissan", "Altima"));
+
+        Assertions.assertEquals("result 3", typicalMileage("Nissan", "Altima", "Riyadh"));
+        Assertions.assertEquals("result 2", typicalMileage("Toyota", "Camry", "Riyadh"));
+        Assertions.assertEquals(1, analyticsCache.getStats().getInvalidations());
+    }
+
+    @Test
+    public void carMovedToAnotherModelInvalidatesBothTest() {
+        typicalMileage("Nissan", "Altima", "Riyadh");
+        typicalMileage("Nissan", "Sentra", "Riyadh");
+
+        analyticsCache.onCarChanged(new CarChangedEvent(1, "Nissan", "Sentra", "Nissan", "Altima", false));
+
+        Assertions.assertEquals(0, analyticsCache.getStats().getSize());
+    }
+
+    @Test
+    public void ownerCityChangeDropsCityFilteredResultsTest() {
+        typicalMileage("Nissan", "Altima", "Riyadh");
+        typicalMileage("Toyota", "Camry", "Jeddah");
+        analyticsCache.getOrCompute("maintenance-cost", "Nissan", "Altima", List.of(""), () -> "cost");
+
+        analyticsCache.onUserCityChanged(new UserCityChangedEvent(1));
+
+        Assertions.assertEquals(1, analyticsCache.getStats().getSize());
+        Assertions.assertEquals("result 3", typicalMileage("Nissan", "Altima", "Riyadh"));
+    }
+
+    @Test
+    public void resultComputedDuringCityChangeIsNotStoredTest() {
+        analyticsCache.getOrCompute(AnalyticsResultCacheService.TYPICAL_MILEAGE, "Nissan", "Altima", List.of("Riyadh"), () -> {
+            analyticsCache.onUserCityChanged(new UserCityChangedEvent(1));
+            return "stale";
+        });
+
+        Assertions.assertEquals(0, analyticsCache.getStats().getSize());
+    }
+
+    @Test
+    public void resultComputedDuringInvalidationIsNotStoredTest() {
+        analyticsCache.getOrCompute("typical-mileage", "Nissan", "Altima", List.of(""), () -> {
+            analyticsCache.invalidate("Nissan", "Altima");
+            return "stale";
+        });
+
+        Assertions.assertEquals(0, analyticsCache.getStats().getSize());
+    }
+
+    @Test
+    public void expiredEntryIsRecomputedTest() {
+        ReflectionTestUtils.setField(analyticsCache, "ttlMs", -1L);
+        typicalMileage("Nissan", "Altima", "Riyadh");
+
+        Assertions.assertEquals("result 2", typicalMileage("Nissan", "Altima", "Riyadh"));
+        Assertions.assertEquals(1, analyticsCache.getStats().getExpirations());
+    }
+}
@@ -0,0 +1,110 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.DTOout.QuestionResponse;
+import com.fkhrayef.motor.Service.AnswerCacheService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AnswerCacheServiceTest {
+
+    AnswerCacheService answerCache;
+
+    QuestionResponse response1, response2, response3;
+
+    @BeforeEach
+    void setup() {
+        answerCache = new AnswerCacheService();
+
+        response1 = new QuestionResponse("4.4 liters", null, null, null, "2022 Nissan Altima owner-manual", null);
+        response2 = new QuestionResponse("36 psi", null, null, null, "2022 Nissan Altima owner-manual", null);
+        response3 = new QuestionResponse("5.7 liters", null, null, null, "2025 Nissan Sentra owner-manual", null);
+    }
+
+    @Test
+    public void normalizeQuestionTest() {
+        Assertions.assertEquals("oil capacity", AnswerCacheService.normalizeQuestion("  Oil   Capacity? "));
+        Assertions.assertEquals("oil capacity", AnswerCacheService.normalizeQuestion("oil capacity"));
+        Assertions.assertEquals("", AnswerCacheService.normalizeQuestion(null));
+    }
+
+    @Test
+    public void hitForNormalizedQuestionTest() {
+        answerCache.put("2022 Nissan Altima owner-manual", "Oil capacity?", response1);
+
+        Assertions.assertEquals("4.4 liters", answerCache.get("2022 Nissan Altima owner-manual", "oil  capacity").getAnswer());
+        Assertions.assertNull(answerCache.get("2025 Nissan Sentra owner-manual", "oil capacity"));
+        Assertions.assertEquals(1, answerCache.getStats().getHits());
+        Assertions.assertEquals(1, answerCache.getStats().getMisses());
+    }
+
+    @Test
+    public void callersCannotChangeCachedAnswerTest() {
+        QuestionResponse response = new QuestionResponse("4.4 liters", null, new ArrayList<>(List.of(new HashMap<>(Map.of("page_number", 12)))),
+                null, "2022 Nissan Altima owner-manual", new ArrayList<>(List.of("Page 12")));
+        answerCache.put("2022 Nissan Altima owner-manual", "oil capacity", response);
+        response.setAnswer("changed after put");
+
+        QuestionResponse first = answerCache.get("2022 Nissan Altima owner-manual", "oil capacity");
+        first.setDocument_name("changed by first caller");
+        first.getSource_pages().add("Page 99");
+        first.getSources().get(0).put("page_number", 99);
+
+        QuestionResponse second = answerCache.get("2022 Nissan Altima owner-manual", "oil capacity");
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals("4.4 liters", second.getAnswer());
+        Assertions.assertEquals("2022 Nissan Altima owner-manual", second.getDocument_name());
+        Assertions.assertEquals(List.of("Page 12"), second.getSource_pages());
+        Assertions.assertEquals(12, second.getSources().get(0).get("page_number"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedTest() {
+        ReflectionTestUtils.setField(answerCache, "maxEntries", 2);
+
+        answerCache.put("2022 Nissan Altima owner-manual", "oil capacity", response1);
+        answerCache.put("2022 Nissan Altima owner-manual", "tyre pressure", response2);
+        // touch the first entry so the second becomes the eldest
+        answerCache.get("2022 Nissan Altima owner-manual", "oil capacity");
+        answerCache.put("2025 Nissan Sentra owner-manual", "oil capacity", response3);
+
+        Assertions.assertNotNull(answerCache.get("2022 Nissan Altima owner-manual", "oil capacity"));
+        Assertions.assertNull(answerCache.get("2022 Nissan Altima owner-manual", "tyre pressure"));
+        Assertions.assertEquals(1, answerCache.getStats().getEvictions());
+    }
+
+    @Test
+    public void expiredEntryIsMissTest() {
+        ReflectionTestUtils.setField(answerCache, "ttlMs", -1L);
+
+        answerCache.put("2022 Nissan Altima owner-manual", "oil capacity", response1);
+
+        Assertions.assertNull(answerCache.get("2022 Nissan Altima owner-manual", "oil capacity"));
+        Assertions.assertEquals(1, answerCache.getStats().getExpirations());
+    }
+
+    @Test
+    public void invalidateDocumentTest() {
+        answerCache.put("2022 Nissan Altima owner-manual", "oil capacity", response1);
+        answerCache.put("2025 Nissan Sentra owner-manual", "oil capacity", response3);
+
+        answerCache.invalidateDocument("2022 Nissan Altima owner-manual");
+
+        Assertions.assertNull(answerCache.get("2022 Nissan Altima owner-manual", "oil capacity"));
+        Assertions.assertEquals("5.7 liters", answerCache.get("2025 Nissan Sentra owner-manual", "oil capacity").getAnswer());
+    }
+
+    @Test
+    public void bypassPlansTest() {
+        ReflectionTestUtils.setField(answerCache, "bypassPlans", List.of("enterprise"));
+
+        Assertions.assertTrue(answerCache.isBypassed("Enterprise"));
+        Assertions.assertFalse(answerCache.isBypassed("pro"));
+    }
+}
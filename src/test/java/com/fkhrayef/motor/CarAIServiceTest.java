@@ -0,0 +1,194 @@
+package com.fkhrayef.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.DTOout.AnswerSourcesEvent;
+import com.fkhrayef.motor.DTOout.BatchAnswerResult;
+import com.fkhrayef.motor.DTOout.QuestionResponse;
+import com.fkhrayef.motor.Model.Car;
+import com.fkhrayef.motor.Model.Subscription;
+import com.fkhrayef.motor.Model.User;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.UserRepository;
+import com.fkhrayef.motor.Service.AnswerCacheService;
+import com.fkhrayef.motor.Service.CarAIService;
+import com.fkhrayef.motor.Service.RAGService;
+import com.fkhrayef.motor.Service.ReactiveRAGService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CarAIServiceTest {
+
+    static final String DOCUMENT = "2022 Nissan Altima owner-manual";
+
+    @InjectMocks
+    CarAIService carAIService;
+
+    @Mock
+    RAGService ragService;
+    @Mock
+    ReactiveRAGService reactiveRAGService;
+    @Mock
+    CarRepository carRepository;
+    @Mock
+    UserRepository userRepository;
+    @Spy
+    AnswerCacheService answerCache = new AnswerCacheService();
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setup() {
+        User user1 = new User();
+        user1.setId(1);
+        Subscription subscription = new Subscription();
+        subscription.setStatus("active");
+        subscription.setPlanType("pro");
+        user1.setSubscription(subscription);
+
+        Car car1 = new Car();
+        car1.setId(1);
+        car1.setMake("Nissan");
+        car1.setModel("Altima");
+        car1.setYear(2022);
+        car1.setMileage(7500);
+        car1.setPurchaseDate(LocalDate.of(2023, 7, 21));
+        car1.setUser(user1);
+
+        when(userRepository.findUserById(1)).thenReturn(user1);
+        // Not reached when a batch is rejected up front
+        lenient().when(carRepository.findCarById(1)).thenReturn(car1);
+        lenient().when(ragService.documentExists(DOCUMENT)).thenReturn(true);
+    }
+
+    private static ServerSentEvent<String> backendEvent(String event, String data) {
+        return ServerSentEvent.builder(data).event(event).build();
+    }
+
+    @Test
+    public void askStreamRelaysTokensThenSourcesTest() {
+        when(reactiveRAGService.askQuestionStream("Oil capacity?", DOCUMENT)).thenReturn(Flux.just(
+                backendEvent("token", "4.4 "),
+                backendEvent("token", "liters"),
+                backendEvent("sources", "[{\"page_number\": 12}, {\"page_number\": 12}, {\"page_number\": 40}]"),
+                backendEvent("done", "")));
+
+        StepVerifier.create(carAIService.askQuestionStream(1, 1, "Oil capacity?"))
+                .assertNext(e -> {
+                    Assertions.assertEquals("token", e.event());
+                    Assertions.assertEquals("4.4 ", e.data());
+                })
+                .assertNext(e -> Assertions.assertEquals("liters", e.data()))
+                .assertNext(e -> {
+                    Assertions.assertEquals("sources", e.event());
+                    AnswerSourcesEvent sources = (AnswerSourcesEvent) e.data();
+                    Assertions.assertEquals(DOCUMENT, sources.getDocument_name());
+                    Assertions.assertEquals(List.of("Page 12", "Page 40"), sources.getSource_pages());
+                })
+                .verifyComplete();
+
+        // The streamed answer is cached whole for the next caller
+        Assertions.assertEquals("4.4 liters", answerCache.get(DOCUMENT, "oil capacity").getAnswer());
+    }
+
+    @Test
+    public void askStreamReportsBackendFailureAsErrorEventTest() {
+        when(reactiveRAGService.askQuestionStream("Oil capacity?", DOCUMENT)).thenReturn(
+                Flux.just(backendEvent("token", "4.4 ")).concatWith(Flux.error(new ApiException("RAG stream timed out"))));
+
+        StepVerifier.create(carAIService.askQuestionStream(1, 1, "Oil capacity?"))
+                .assertNext(e -> Assertions.assertEquals("token", e.event()))
+                .assertNext(e -> {
+                    Assertions.assertEquals("error", e.event());
+                    Assertions.assertEquals("RAG stream timed out", e.data());
+                })
+                .verifyComplete();
+
+        // A broken answer is not cached
+        Assertions.assertNull(answerCache.get(DOCUMENT, "oil capacity"));
+    }
+
+    @Test
+    public void askStreamServesCachedAnswerWithoutBackendTest() {
+        answerCache.put(DOCUMENT, "oil capacity", new QuestionResponse("4.4 liters", null, null, null, DOCUMENT, List.of("Page 12")));
+
+        StepVerifier.create(carAIService.askQuestionStream(1, 1, "Oil capacity?"))
+                .assertNext(e -> {
+                    Assertions.assertEquals("token", e.event());
+                    Assertions.assertEquals("4.4 liters", e.data());
+                })
+                .assertNext(e -> Assertions.assertEquals(List.of("Page 12"), ((AnswerSourcesEvent) e.data()).getSource_pages()))
+                .verifyComplete();
+        verify(reactiveRAGService, never()).askQuestionStream(anyString(), anyString());
+    }
+
+    @Test
+    public void askBatchKeepsRequestOrderTest() {
+        // The first answer arrives last but is still reported first
+        when(reactiveRAGService.askQuestion("Oil capacity?", DOCUMENT)).thenReturn(
+                Mono.just(new QuestionResponse("4.4 liters", null, null, null, DOCUMENT, null)).delayElement(Duration.ofMillis(100)));
+        when(reactiveRAGService.askQuestion("Tyre pressure?", DOCUMENT)).thenReturn(
+                Mono.just(new QuestionResponse("36 psi", null, null, null, DOCUMENT, null)));
+        when(reactiveRAGService.askQuestion("Coolant type?", DOCUMENT)).thenReturn(
+                Mono.just(new QuestionResponse("Nissan Long Life Coolant", null, null, null, DOCUMENT, null)));
+
+        StepVerifier.create(carAIService.askQuestions(1, 1, List.of("Oil capacity?", "Tyre pressure?", "Coolant type?")))
+                .assertNext(batch -> {
+                    Assertions.assertEquals(3, batch.getAnswered());
+                    Assertions.assertEquals(List.of(0, 1, 2), batch.getResults().stream().map(BatchAnswerResult::getIndex).toList());
+                    Assertions.assertEquals("4.4 liters", batch.getResults().get(0).getResponse().getAnswer());
+                    Assertions.assertEquals("Nissan Long Life Coolant", batch.getResults().get(2).getResponse().getAnswer());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void askBatchReportsFailedQuestionWithoutFailingOthersTest() {
+        when(reactiveRAGService.askQuestion("Oil capacity?", DOCUMENT)).thenReturn(
+                Mono.just(new QuestionResponse("4.4 liters", null, null, null, DOCUMENT, null)));
+        when(reactiveRAGService.askQuestion("Tyre pressure?", DOCUMENT)).thenReturn(
+                Mono.error(new ApiException("RAG service is temporarily unavailable")));
+
+        StepVerifier.create(carAIService.askQuestions(1, 1, List.of("Oil capacity?", "Tyre pressure?")))
+                .assertNext(batch -> {
+                    Assertions.assertEquals(2, batch.getTotal());
+                    Assertions.assertEquals(1, batch.getAnswered());
+                    Assertions.assertEquals(1, batch.getFailed());
+                    Assertions.assertEquals("success", batch.getResults().get(0).getStatus());
+                    BatchAnswerResult failed = batch.getResults().get(1);
+                    Assertions.assertEquals("failed", failed.getStatus());
+                    Assertions.assertNull(failed.getResponse());
+                    Assertions.assertEquals("RAG service is temporarily unavailable", failed.getError());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void askBatchRejectsTooManyQuestionsTest() {
+        ReflectionTestUtils.setField(carAIService, "batchMaxQuestions", 2);
+
+        ApiException e = Assertions.assertThrows(ApiException.class,
+                () -> carAIService.askQuestions(1, 1, List.of("Oil capacity?", "Tyre pressure?", "Coolant type?")));
+        Assertions.assertEquals("A batch can contain at most 2 questions", e.getMessage());
+        verifyNoInteractions(reactiveRAGService);
+    }
+}
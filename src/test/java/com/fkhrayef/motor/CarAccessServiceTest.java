@@ -0,0 +1,69 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Event.CarAccessChangedEvent;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Service.CarAccessService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CarAccessServiceTest {
+
+    @InjectMocks
+    CarAccessService carAccessService;
+
+    @Mock
+    CarRepository carRepository;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void recomputeDeduplicatesUsersTest() {
+        when(carRepository.updateAccessibilityForUsers(Set.of(1, 2))).thenReturn(3);
+
+        Assertions.assertEquals(3, carAccessService.recompute(Arrays.asList(1, 2, 1, null)));
+    }
+
+    @Test
+    public void recomputeWithoutUsersSkipsUpdateTest() {
+        Assertions.assertEquals(0, carAccessService.recompute(Arrays.asList((Integer) null)));
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void eventRecomputesInNewTransactionTest() {
+        carAccessService.onCarAccessChanged(new CarAccessChangedEvent(List.of(4)));
+
+        verify(transactionManager).getTransaction(argThat(d -> d.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(carRepository, times(1)).updateAccessibilityForUsers(Set.of(4));
+    }
+
+    @Test
+    public void failedRecomputeDoesNotPropagateTest() {
+        when(carRepository.updateAccessibilityForUsers(any())).thenThrow(new RuntimeException("db down"));
+
+        Assertions.assertDoesNotThrow(() -> carAccessService.onCarAccessChanged(new CarAccessChangedEvent(List.of(4))));
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    public void reconcileUpdatesAllUsersInOneStatementTest() {
+        carAccessService.reconcileAll();
+
+        verify(carRepository, times(1)).updateAccessibilityForAllUsers();
+        verify(carRepository, never()).updateAccessibilityForUsers(any());
+    }
+}
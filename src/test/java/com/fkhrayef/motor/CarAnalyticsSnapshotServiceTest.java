@@ -0,0 +1,147 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Event.CarChangedEvent;
+import com.fkhrayef.motor.Event.MaintenanceChangedEvent;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import com.fkhrayef.motor.Service.AnalyticsResultCacheService;
+import com.fkhrayef.motor.Service.CarAnalyticsSnapshotService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CarAnalyticsSnapshotServiceTest {
+
+    @InjectMocks
+    CarAnalyticsSnapshotService analyticsSnapshot;
+
+    @Mock
+    CarRepository carRepository;
+    @Mock
+    MaintenanceRepository maintenanceRepository;
+    @Mock
+    AnalyticsResultCacheService analyticsCache;
+
+    private void loadSnapshot() {
+        LocalDate today = LocalDate.now();
+        when(carRepository.findAnalyticsRows()).thenReturn(List.of(
+                new Object[]{1, "Nissan", "Altima", 20000, today.minusYears(2), "Riyadh"},
+                new Object[]{2, "Nissan", "Altima", 60000, today.minusYears(3), "Jeddah"},
+                new Object[]{3, "Nissan", "Altima", 90000, today.minusYears(1), null},
+                new Object[]{4, "Toyota", "Camry", 10000, today.minusMonths(6), "riyadh"}));
+        when(maintenanceRepository.sumLastYearByCar(any())).thenReturn(List.of(
+                new Object[]{1, 300.0, 2L},
+                new Object[]{2, 900.0, 1L}));
+        analyticsSnapshot.rebuild();
+    }
+
+    @Test
+    public void notLoadedReturnsNullTest() {
+        Assertions.assertFalse(analyticsSnapshot.isLoaded());
+        Assertions.assertNull(analyticsSnapshot.averageYearlySpend("Nissan", "Altima", null, null));
+        Assertions.assertNull(analyticsSnapshot.averageMileagePerYear("Nissan", "Altima", null));
+    }
+
+    @Test
+    public void averageSpendCountsCarsWithoutMaintenanceTest() {
+        loadSnapshot();
+
+        CarAnalyticsSnapshotService.Aggregate all = analyticsSnapshot.averageYearlySpend("Nissan", "Altima", null, null);
+        Assertions.assertEquals(3, all.count());
+        Assertions.assertEquals(400.0, all.average(), 0.001);
+
+        CarAnalyticsSnapshotService.Aggregate low = analyticsSnapshot.averageYearlySpend("Nissan", "Altima", 0, 30000);
+        Assertions.assertEquals(1, low.count());
+        Assertions.assertEquals(300.0, low.average(), 0.001);
+    }
+
+    @Test
+    public void averageVisitsFiltersOnPurchaseYearTest() {
+        loadSnapshot();
+
+        CarAnalyticsSnapshotService.Aggregate all = analyticsSnapshot.averageYearlyVisits("Nissan", "Altima", null, null);
+        Assertions.assertEquals(3, all.count());
+        Assertions.assertEquals(1.0, all.average(), 0.001);
+
+        CarAnalyticsSnapshotService.Aggregate newer = analyticsSnapshot.averageYearlyVisits("Nissan", "Altima", null, 2);
+        Assertions.assertEquals(2, newer.count());
+        Assertions.assertEquals(1.0, newer.average(), 0.001);
+    }
+
+    @Test
+    public void mileagePerYearMatchesCityIgnoringCaseTest() {
+        loadSnapshot();
+
+        CarAnalyticsSnapshotService.Aggregate riyadh = analyticsSnapshot.averageMileagePerYear("Nissan", "Altima", "RIYADH");
+        Assertions.assertEquals(1, riyadh.count());
+        Assertions.assertEquals(10000.0, riyadh.average(), 50.0);
+
+        // Less than a year owned counts as one year
+        CarAnalyticsSnapshotService.Aggregate camry = analyticsSnapshot.averageMileagePerYear("Toyota", "Camry", null);
+        Assertions.assertEquals(10000.0, camry.average(), 0.001);
+
+        Assertions.assertEquals(0, analyticsSnapshot.averageMileagePerYear("Nissan", "Altima", "Dammam").count());
+    }
+
+    @Test
+    public void failedRebuildKeepsPreviousSnapshotTest() {
+        loadSnapshot();
+        when(carRepository.findAnalyticsRows()).thenThrow(new RuntimeException("db down"));
+
+        analyticsSnapshot.rebuild();
+
+        Assertions.assertEquals(3, analyticsSnapshot.averageYearlySpend("Nissan", "Altima", null, null).count());
+        Assertions.assertEquals(1, analyticsSnapshot.getStats().getRebuilds());
+        Assertions.assertEquals(1, analyticsSnapshot.getStats().getRebuildFailures());
+        Assertions.assertEquals(4, analyticsSnapshot.getStats().getCarCount());
+    }
+
+    @Test
+    public void maintenanceChangeRefreshesOnlyItsMakeModelTest() {
+        loadSnapshot();
+        when(maintenanceRepository.sumLastYearByCarForMakeAndModel(any(), eq("Nissan"), eq("Altima"))).thenReturn(List.<Object[]>of(
+                new Object[]{1, 300.0, 2L},
+                new Object[]{2, 900.0, 1L},
+                new Object[]{3, 1200.0, 3L}));
+        when(carRepository.findAnalyticsRowsByMakeAndModel("Nissan", "Altima")).thenReturn(List.<Object[]>of(
+                new Object[]{1, "Nissan", "Altima", 20000, LocalDate.now().minusYears(2), "Riyadh"},
+                new Object[]{2, "Nissan", "Altima", 60000, LocalDate.now().minusYears(3), "Jeddah"},
+                new Object[]{3, "Nissan", "Altima", 90000, LocalDate.now().minusYears(1), "Dammam"}));
+
+        analyticsSnapshot.onMaintenanceChanged(new MaintenanceChangedEvent(3, "Nissan", "Altima"));
+
+        Assertions.assertEquals(800.0, analyticsSnapshot.averageYearlySpend("Nissan", "Altima", null, null).average(), 0.001);
+        Assertions.assertEquals(1, analyticsSnapshot.averageMileagePerYear("Nissan", "Altima", "dammam").count());
+        Assertions.assertEquals(1, analyticsSnapshot.averageYearlySpend("Toyota", "Camry", null, null).count());
+        Assertions.assertEquals(1, analyticsSnapshot.getStats().getRefreshes());
+        verify(analyticsCache).invalidate("Nissan", "Altima");
+        verify(carRepository, times(1)).findAnalyticsRows();
+    }
+
+    @Test
+    public void carMovedToAnotherModelRefreshesBothTest() {
+        loadSnapshot();
+        when(maintenanceRepository.sumLastYearByCarForMakeAndModel(any(), any(), any())).thenReturn(List.of());
+        when(carRepository.findAnalyticsRowsByMakeAndModel("Toyota", "Camry")).thenReturn(List.of());
+        when(carRepository.findAnalyticsRowsByMakeAndModel("Toyota", "Corolla")).thenReturn(List.<Object[]>of(
+                new Object[]{4, "Toyota", "Corolla", 10000, LocalDate.now().minusMonths(6), "riyadh"}));
+
+        analyticsSnapshot.onCarChanged(new CarChangedEvent(4, "Toyota", "Corolla", "Toyota", "Camry", false));
+
+        Assertions.assertEquals(0, analyticsSnapshot.averageYearlySpend("Toyota", "Camry", null, null).count());
+        Assertions.assertEquals(1, analyticsSnapshot.averageYearlySpend("Toyota", "Corolla", null, null).count());
+        Assertions.assertEquals(4, analyticsSnapshot.getStats().getCarCount());
+        verify(analyticsCache).invalidate("Toyota", "Camry");
+        verify(analyticsCache).invalidate("Toyota", "Corolla");
+    }
+}
@@ -0,0 +1,107 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.DTOout.CarDistributionResponse;
+import com.fkhrayef.motor.Event.CarChangedEvent;
+import com.fkhrayef.motor.Event.MaintenanceChangedEvent;
+import com.fkhrayef.motor.Event.UserCityChangedEvent;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import com.fkhrayef.motor.Service.CarDistributionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CarDistributionServiceTest {
+
+    @InjectMocks
+    CarDistributionService distributionService;
+
+    @Mock
+    CarRepository carRepository;
+    @Mock
+    MaintenanceRepository maintenanceRepository;
+
+    LocalDate twoYearsAgo;
+
+    @BeforeEach
+    void setup() {
+        twoYearsAgo = LocalDate.now().minusYears(2);
+        List<Object[]> cars = new ArrayList<>();
+        cars.add(new Object[]{1, "Nissan", "Altima", 20000, twoYearsAgo, "Riyadh"});
+        cars.add(new Object[]{2, "Nissan", "Altima", 40000, twoYearsAgo, "Riyadh"});
+        cars.add(new Object[]{3, "Nissan", "Altima", 60000, twoYearsAgo, "Jeddah"});
+        when(carRepository.findAnalyticsRows()).thenReturn(cars);
+        List<Object[]> spend = new ArrayList<>();
+        spend.add(new Object[]{1, 1200.0, 2L});
+        when(maintenanceRepository.sumLastYearByCar(any())).thenReturn(spend);
+        distributionService.rebuild();
+    }
+
+    @Test
+    public void distributionMergesCitiesTest() {
+        CarDistributionResponse response = distributionService.getDistribution("Nissan", "Altima", null);
+
+        Assertions.assertEquals(3, response.getMileagePerYear().getCount());
+        Assertions.assertEquals(20000, response.getMileagePerYear().getP50(), 20000 * 0.02);
+        Assertions.assertEquals(3, response.getYearlyMaintenanceCost().getCount());
+        Assertions.assertEquals(0, response.getYearlyMaintenanceCost().getP50());
+    }
+
+    @Test
+    public void distributionForOneCityTest() {
+        CarDistributionResponse response = distributionService.getDistribution("Nissan", "Altima", "riyadh");
+
+        Assertions.assertEquals(2, response.getMileagePerYear().getCount());
+        Assertions.assertEquals(1200, response.getYearlyMaintenanceCost().getP90(), 1200 * 0.02);
+    }
+
+    @Test
+    public void maintenanceChangeMovesCarValueTest() {
+        List<Object[]> car2 = new ArrayList<>();
+        car2.add(new Object[]{2, "Nissan", "Altima", 40000, twoYearsAgo, "Riyadh"});
+        when(carRepository.findAnalyticsRowsById(2)).thenReturn(car2);
+        when(maintenanceRepository.sumMaintenanceSpendSince(eq(2), any())).thenReturn(3000.0);
+
+        distributionService.onMaintenanceChanged(new MaintenanceChangedEvent(2, "Nissan", "Altima"));
+
+        CarDistributionResponse response = distributionService.getDistribution("Nissan", "Altima", "Riyadh");
+        Assertions.assertEquals(2, response.getYearlyMaintenanceCost().getCount());
+        Assertions.assertEquals(1200, response.getYearlyMaintenanceCost().getP10(), 1200 * 0.02);
+    }
+
+    @Test
+    public void deletedCarIsRemovedTest() {
+        distributionService.onCarChanged(new CarChangedEvent(3, "Nissan", "Altima", "Nissan", "Altima", true));
+
+        Assertions.assertEquals(0, distributionService.getDistribution("Nissan", "Altima", "Jeddah").getMileagePerYear().getCount());
+        Assertions.assertEquals(2, distributionService.getDistribution("Nissan", "Altima", null).getMileagePerYear().getCount());
+        verify(carRepository, never()).findAnalyticsRowsById(3);
+    }
+
+    @Test
+    public void ownerMovingCityMovesTheirCarsTest() {
+        List<Object[]> car3 = new ArrayList<>();
+        car3.add(new Object[]{3, "Nissan", "Altima", 30000, twoYearsAgo, "Riyadh"});
+        when(carRepository.findIdsByUserId(7)).thenReturn(List.of(3));
+        when(carRepository.findAnalyticsRowsById(3)).thenReturn(car3);
+        when(maintenanceRepository.sumMaintenanceSpendSince(eq(3), any())).thenReturn(0.0);
+
+        distributionService.onUserCityChanged(new UserCityChangedEvent(7));
+
+        Assertions.assertEquals(0, distributionService.getDistribution("Nissan", "Altima", "Jeddah").getMileagePerYear().getCount());
+        Assertions.assertEquals(3, distributionService.getDistribution("Nissan", "Altima", "Riyadh").getMileagePerYear().getCount());
+    }
+}
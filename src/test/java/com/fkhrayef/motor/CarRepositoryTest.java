@@ -0,0 +1,114 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.DTOout.CarSummaryDTO;
+import com.fkhrayef.motor.Model.Car;
+import com.fkhrayef.motor.Model.Maintenance;
+import com.fkhrayef.motor.Model.Reminder;
+import com.fkhrayef.motor.Model.User;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import com.fkhrayef.motor.Repository.ReminderRepository;
+import com.fkhrayef.motor.Repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class CarRepositoryTest {
+
+    @Autowired
+    CarRepository carRepo;
+
+    @Autowired
+    UserRepository userRepo;
+
+    @Autowired
+    MaintenanceRepository maintenanceRepo;
+
+    @Autowired
+    ReminderRepository reminderRepo;
+
+    User user1;
+    Car car1, car2;
+    LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.now();
+
+        user1 = new User(null, "+966535347890", "Faisal", "faisal@example.com", "1234", "Riyadh", "USER", null, null, null, null, null, null, null, null, null, null, null, null, LocalDateTime.now(), LocalDateTime.now());
+        userRepo.save(user1);
+
+        car1 = new Car(null, "Nissan", "Altima", 2022, "My Car", 7500, "DSL38FJDMR93JFKV2", LocalDate.of(2023, 7, 21), null, null, null, null, true, user1, null, null, null, LocalDateTime.now(), LocalDateTime.now());
+        car2 = new Car(null, "Nissan", "Sentra", 2025, "Second Car", 1200, "KKL38FJRRR93JFKV2", LocalDate.of(2025, 7, 21), null, null, null, null, true, user1, null, null, null, LocalDateTime.now(), LocalDateTime.now());
+        carRepo.save(car1);
+        carRepo.save(car2);
+
+        maintenanceRepo.save(new Maintenance(null, "MAINTENANCE", "Oil change", LocalDate.of(2024, 3, 18), 5000, null, null, 250.0, car1, LocalDateTime.now(), LocalDateTime.now()));
+        maintenanceRepo.save(new Maintenance(null, "REPAIR", "Bumper", LocalDate.of(2024, 9, 2), 7000, null, null, 900.0, car1, LocalDateTime.now(), LocalDateTime.now()));
+
+        reminderRepo.save(new Reminder(null, "maintenance", today.plusDays(30), "Oil change at 10000 km", false, 10000, null, null, car1, LocalDateTime.now(), LocalDateTime.now()));
+        reminderRepo.save(new Reminder(null, "maintenance", today.plusDays(10), "Tire rotation", false, null, null, null, car1, LocalDateTime.now(), LocalDateTime.now()));
+        reminderRepo.save(new Reminder(null, "maintenance", today.minusDays(5), "Brake check", true, null, null, null, car1, LocalDateTime.now(), LocalDateTime.now()));
+    }
+
+    @Test
+    public void findCarSummariesByUserId() {
+        List<CarSummaryDTO> list = carRepo.findCarSummariesByUserId(user1.getId(), today);
+
+        Assertions.assertEquals(2, list.size());
+        CarSummaryDTO summary1 = list.get(0);
+        Assertions.assertEquals(car1.getId(), summary1.getId());
+        Assertions.assertEquals(2, summary1.getMaintenanceCount());
+        Assertions.assertEquals(LocalDate.of(2024, 9, 2), summary1.getLastServiceDate());
+        Assertions.assertEquals(2, summary1.getPendingReminderCount());
+        Assertions.assertEquals(today.plusDays(10), summary1.getNextReminderDueDate());
+
+        CarSummaryDTO summary2 = list.get(1);
+        Assertions.assertEquals(0, summary2.getMaintenanceCount());
+        Assertions.assertNull(summary2.getNextReminderDueDate());
+    }
+
+    @Test
+    public void findMileageReminderRowsPagesByOwner() {
+        List<Object[]> first = carRepo.findMileageReminderRows(user1.getId() - 1, 0, 1, 0, Limit.of(1));
+        Assertions.assertEquals(1, first.size());
+        Assertions.assertEquals(car1.getId(), first.get(0)[0]);
+        Assertions.assertEquals(user1.getId(), first.get(0)[1]);
+        Assertions.assertEquals("+966535347890", first.get(0)[2]);
+
+        List<Object[]> next = carRepo.findMileageReminderRows(user1.getId(), car1.getId(), 1, 0, Limit.of(10));
+        Assertions.assertEquals(car2.getId(), next.get(0)[0]);
+
+        int ownerPartition = user1.getId() % 2;
+        Assertions.assertTrue(carRepo.findMileageReminderRows(user1.getId() - 1, 0, 2, 1 - ownerPartition, Limit.of(10)).isEmpty());
+    }
+
+    @Test
+    public void findMileageRowsFiltersOnOwnerCity() {
+        Assertions.assertEquals(2, carRepo.findMileageRows("Nissan", "Altima", null).size()
+                + carRepo.findMileageRows("Nissan", "Sentra", null).size());
+        List<Object[]> riyadh = carRepo.findMileageRows("Nissan", "Altima", "RIYADH");
+        Assertions.assertTrue(riyadh.stream().anyMatch(row -> row[0].equals(7500) && row[1].equals(LocalDate.of(2023, 7, 21))));
+        Assertions.assertTrue(carRepo.findMileageRows("Nissan", "Altima", "Jeddah").stream().noneMatch(row -> row[0].equals(7500)));
+    }
+
+    @Test
+    public void findIdsByUserIdAndDocumentNameMatchesManualName() {
+        Assertions.assertEquals(List.of(car1.getId()), carRepo.findIdsByUserIdAndDocumentName(user1.getId(), "2022 Nissan Altima owner-manual"));
+        Assertions.assertTrue(carRepo.findIdsByUserIdAndDocumentName(user1.getId(), "2023 Nissan Altima owner-manual").isEmpty());
+        Assertions.assertTrue(carRepo.findIdsByUserIdAndDocumentName(user1.getId() + 1, "2022 Nissan Altima owner-manual").isEmpty());
+    }
+}
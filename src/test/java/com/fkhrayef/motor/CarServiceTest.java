@@ -0,0 +1,65 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Event.MaintenanceChangedEvent;
+import com.fkhrayef.motor.Model.User;
+import com.fkhrayef.motor.Repository.UserRepository;
+import com.fkhrayef.motor.Service.AnalyticsResultCacheService;
+import com.fkhrayef.motor.Service.CarAnalyticsSnapshotService;
+import com.fkhrayef.motor.Service.CarService;
+import com.fkhrayef.motor.Service.MaintenanceCostRollupService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CarServiceTest {
+
+    @InjectMocks
+    CarService carService;
+
+    @Mock
+    UserRepository userRepository;
+    @Mock
+    MaintenanceCostRollupService costRollupService;
+    // Not loaded: reads fall back to the rollup
+    @Mock
+    CarAnalyticsSnapshotService analyticsSnapshot;
+    @Spy
+    AnalyticsResultCacheService analyticsCache = new AnalyticsResultCacheService();
+
+    @BeforeEach
+    void setup() {
+        User user1 = new User(1, "+966535347890", "Faisal", "faisal@example.com", "1234", "Riyadh", "USER", null, null, null, null, null, null, null, null, null, null, null, null, LocalDateTime.now(), LocalDateTime.now());
+        when(userRepository.findUserById(1)).thenReturn(user1);
+    }
+
+    @Test
+    public void maintenanceCostIsFreshAfterWriteTest() {
+        when(costRollupService.countCars("Nissan", "Altima", null, null)).thenReturn(2L);
+        when(costRollupService.sumSpendSince(eq("Nissan"), eq("Altima"), any(), isNull(), isNull())).thenReturn(1000.0);
+
+        Assertions.assertEquals("Maintenance cost in last year: 500.00 SAR (based on 2 cars)",
+                carService.getMaintenanceCostOneYear(1, "Nissan", "Altima", null, null));
+        Assertions.assertEquals("Maintenance cost in last year: 500.00 SAR (based on 2 cars)",
+                carService.getMaintenanceCostOneYear(1, "Nissan", "Altima", null, null));
+        verify(costRollupService, times(1)).countCars("Nissan", "Altima", null, null);
+
+        // A new invoice is added to the rollup in the write's transaction; the event follows the commit
+        when(costRollupService.sumSpendSince(eq("Nissan"), eq("Altima"), any(), isNull(), isNull())).thenReturn(3000.0);
+        analyticsCache.onMaintenanceChanged(new MaintenanceChangedEvent(1, "Nissan", "Altima"));
+
+        Assertions.assertEquals("Maintenance cost in last year: 1500.00 SAR (based on 2 cars)",
+                carService.getMaintenanceCostOneYear(1, "Nissan", "Altima", null, null));
+    }
+}
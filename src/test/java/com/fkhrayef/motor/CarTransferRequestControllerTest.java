@@ -1,6 +1,7 @@
 package com.fkhrayef.motor;
 
 import com.fkhrayef.motor.Controller.CarTransferRequestController;
+import com.fkhrayef.motor.DTOout.KeysetPage;
 import com.fkhrayef.motor.Model.Car;
 import com.fkhrayef.motor.Model.CarTransferRequest;
 import com.fkhrayef.motor.Model.User;
@@ -107,7 +108,7 @@ class CarTransferRequestControllerTest {
 
     @Test
     void byStatus_returnsEmptyList() throws Exception {
-        when(transferService.getByStatus("pending")).thenReturn(java.util.Collections.emptyList());
+        when(transferService.getByStatus("pending", null, null)).thenReturn(new KeysetPage<>(java.util.Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/v1/transfer-requests/by-status/{status}", "pending"))
                 .andExpect(status().isOk())
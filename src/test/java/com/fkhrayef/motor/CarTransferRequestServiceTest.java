@@ -1,5 +1,7 @@
 package com.fkhrayef.motor;
 
+import com.fkhrayef.motor.Event.CarAccessChangedEvent;
+import com.fkhrayef.motor.Event.CarChangedEvent;
 import com.fkhrayef.motor.Model.Car;
 import com.fkhrayef.motor.Model.CarTransferRequest;
 import com.fkhrayef.motor.Model.User;
@@ -14,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -33,6 +36,8 @@ public class CarTransferRequestServiceTest {
     CarRepository carRepository;
     @Mock
     UserRepository userRepository;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
 
     User user1, user2;
     Car car1, car2;
@@ -128,6 +133,10 @@ public class CarTransferRequestServiceTest {
         verify(transferRepo, times(1)).findByIdAndToUser_Id(carTransferRequest1.getId(), user2.getId());
         verify(carRepository, times(1)).save(car1);
         verify(transferRepo, times(1)).save(carTransferRequest1);
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object e) -> e instanceof CarAccessChangedEvent a
+                && a.getUserIds().equals(List.of(user1.getId(), user2.getId()))));
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object e) -> e instanceof CarChangedEvent c
+                && c.getCarId().equals(car1.getId())));
     }
 
     @Test
@@ -0,0 +1,60 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.DTOout.DocumentCatalogStatsResponse;
+import com.fkhrayef.motor.Service.DocumentCatalogService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class DocumentCatalogServiceTest {
+
+    DocumentCatalogService documentCatalog;
+
+    @BeforeEach
+    void setup() {
+        documentCatalog = new DocumentCatalogService();
+    }
+
+    @Test
+    public void emptyCatalogIsNotLoadedTest() {
+        Assertions.assertFalse(documentCatalog.isLoaded());
+        Assertions.assertTrue(documentCatalog.isRefreshDueOnMiss());
+        Assertions.assertFalse(documentCatalog.contains("2022 Nissan Altima owner-manual"));
+    }
+
+    @Test
+    public void replaceAllAndAddTest() {
+        documentCatalog.replaceAll(List.of("2022 Nissan Altima owner-manual"));
+        documentCatalog.add("2025 Nissan Sentra owner-manual");
+
+        Assertions.assertTrue(documentCatalog.isLoaded());
+        Assertions.assertTrue(documentCatalog.contains("2022 Nissan Altima owner-manual"));
+        Assertions.assertTrue(documentCatalog.contains("2025 Nissan Sentra owner-manual"));
+
+        // A refresh replaces the whole set
+        documentCatalog.replaceAll(List.of("2025 Nissan Sentra owner-manual"));
+        Assertions.assertFalse(documentCatalog.contains("2022 Nissan Altima owner-manual"));
+    }
+
+    @Test
+    public void statsCountHitsAndMissesTest() {
+        documentCatalog.replaceAll(List.of("2022 Nissan Altima owner-manual"));
+        documentCatalog.recordLookup(true);
+        documentCatalog.recordLookup(true);
+        documentCatalog.recordLookup(false);
+        documentCatalog.recordRefreshFailure("timeout");
+
+        DocumentCatalogStatsResponse stats = documentCatalog.getStats();
+
+        Assertions.assertTrue(stats.isLoaded());
+        Assertions.assertEquals(1, stats.getDocumentCount());
+        Assertions.assertEquals(2, stats.getHits());
+        Assertions.assertEquals(1, stats.getMisses());
+        Assertions.assertEquals(2.0 / 3, stats.getHitRatio(), 0.0001);
+        Assertions.assertEquals(1, stats.getRefreshes());
+        Assertions.assertEquals(1, stats.getRefreshFailures());
+        Assertions.assertEquals("timeout", stats.getLastRefreshError());
+    }
+}
@@ -0,0 +1,82 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Service.FanOutService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class FanOutServiceTest {
+
+    FanOutService fanOutService = new FanOutService();
+
+    @AfterEach
+    void tearDown() {
+        fanOutService.shutdown();
+    }
+
+    @Test
+    public void runsEveryTaskAndCountsFailuresTest() {
+        List<Integer> items = IntStream.rangeClosed(1, 20).boxed().toList();
+        ConcurrentLinkedQueue<Integer> ran = new ConcurrentLinkedQueue<>();
+
+        FanOutService.Result result = fanOutService.run("test", items, i -> "other", i -> {
+            ran.add(i);
+            if (i % 5 == 0) {
+                throw new IllegalStateException("provider error");
+            }
+        });
+
+        Assertions.assertEquals(20, ran.size());
+        Assertions.assertEquals(20, result.tasks());
+        Assertions.assertEquals(16, result.succeeded());
+        Assertions.assertEquals(4, result.failed());
+        Assertions.assertEquals(1, fanOutService.getStats().size());
+        Assertions.assertEquals(20, fanOutService.getStats().get(0).getTotalTasks());
+    }
+
+    @Test
+    public void concurrencyCapPerProviderTest() {
+        ReflectionTestUtils.setField(fanOutService, "whatsappRatePerSecond", 0.0);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        fanOutService.run("test", IntStream.range(0, 24).boxed().toList(), i -> "whatsapp", i -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+        });
+
+        Assertions.assertTrue(peak.get() <= 4, "peak " + peak.get());
+        Assertions.assertTrue(peak.get() > 1, "peak " + peak.get());
+    }
+
+    @Test
+    public void rateLimitSpreadsSendsTest() {
+        // 10/s with a burst of 4: the remaining 6 wait about 100 ms each
+        FanOutService.Result result = fanOutService.run("test", IntStream.range(0, 10).boxed().toList(), i -> "whatsapp", i -> {
+        });
+
+        Assertions.assertEquals(10, result.succeeded());
+        Assertions.assertTrue(result.durationMs() >= 450, "took " + result.durationMs() + " ms");
+    }
+
+    @Test
+    public void emptyInputTest() {
+        FanOutService.Result result = fanOutService.run("test", List.<Integer>of(), i -> "email", i -> {
+            throw new IllegalStateException("should not run");
+        });
+
+        Assertions.assertEquals(0, result.tasks());
+        Assertions.assertTrue(fanOutService.getStats().isEmpty());
+    }
+}
@@ -0,0 +1,54 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.DTOout.KeysetPage;
+import com.fkhrayef.motor.Service.KeysetPaginationService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class KeysetPaginationServiceTest {
+
+    KeysetPaginationService pagination;
+
+    @BeforeEach
+    void setup() {
+        pagination = new KeysetPaginationService();
+    }
+
+    @Test
+    public void pageSizeDefaultsAndIsCappedTest() {
+        Assertions.assertEquals(50, pagination.pageSize(null));
+        Assertions.assertEquals(500, pagination.pageSize(10_000));
+        Assertions.assertThrows(ApiException.class, () -> pagination.pageSize(0));
+    }
+
+    @Test
+    public void nextCursorContinuesAfterLastItemTest() {
+        // size + 1 rows fetched => there is another page
+        KeysetPage<Integer> page = pagination.page(List.of(3, 7, 9), 2, Function.identity());
+
+        Assertions.assertEquals(List.of(3, 7), page.getItems());
+        Assertions.assertNotNull(page.getNextCursor());
+        Assertions.assertEquals(7, pagination.afterId(page.getNextCursor()));
+        Assertions.assertEquals(page.getNextCursor(), page.toHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void lastPageHasNoCursorTest() {
+        KeysetPage<Integer> page = pagination.page(List.of(3, 7), 2, Function.identity());
+
+        Assertions.assertNull(page.getNextCursor());
+        Assertions.assertFalse(page.toHeaders().containsKey(KeysetPage.NEXT_CURSOR_HEADER));
+        Assertions.assertEquals(0, pagination.afterId(null));
+    }
+
+    @Test
+    public void invalidCursorThrowsTest() {
+        Assertions.assertThrows(ApiException.class, () -> pagination.afterId("not a cursor"));
+        Assertions.assertThrows(ApiException.class, () -> pagination.afterId("eDo1"));
+    }
+}
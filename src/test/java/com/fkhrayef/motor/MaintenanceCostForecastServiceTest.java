@@ -0,0 +1,83 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.Model.MaintenanceCostForecast;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceCostForecastRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import com.fkhrayef.motor.Service.MaintenanceCostForecastService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MaintenanceCostForecastServiceTest {
+
+    @InjectMocks
+    MaintenanceCostForecastService forecastService;
+
+    @Mock
+    CarRepository carRepository;
+    @Mock
+    MaintenanceRepository maintenanceRepository;
+    @Mock
+    MaintenanceCostForecastRepository forecastRepository;
+
+    @SuppressWarnings("unchecked")
+    private Map<Integer, MaintenanceCostForecast> runAndCapture() {
+        forecastService.runForecasts();
+
+        ArgumentCaptor<List<MaintenanceCostForecast>> captor = ArgumentCaptor.forClass(List.class);
+        verify(forecastRepository, atLeastOnce()).batchUpsert(captor.capture());
+        Map<Integer, MaintenanceCostForecast> byCar = new HashMap<>();
+        captor.getAllValues().forEach(batch -> batch.forEach(f -> byCar.put(f.getCarId(), f)));
+        return byCar;
+    }
+
+    @Test
+    public void forecastUsesBandPeersOrWholeModelTest() {
+        List<Object[]> cars = new ArrayList<>();
+        cars.add(new Object[]{1, "Nissan", "Altima", 12000, null, null});
+        cars.add(new Object[]{2, "Nissan", "Altima", 15000, null, null});
+        cars.add(new Object[]{3, "Nissan", "Altima", 18000, null, null});
+        cars.add(new Object[]{4, "Nissan", "Altima", 95000, null, null});
+        cars.add(new Object[]{5, "Toyota", "Camry", 40000, null, null});
+        when(carRepository.findAnalyticsRows()).thenReturn(cars);
+        List<Object[]> spend = new ArrayList<>();
+        spend.add(new Object[]{1, 300.0, 1L});
+        spend.add(new Object[]{2, 600.0, 2L});
+        spend.add(new Object[]{4, 2100.0, 3L});
+        when(maintenanceRepository.sumLastYearByCar(any())).thenReturn(spend);
+
+        Map<Integer, MaintenanceCostForecast> forecasts = runAndCapture();
+
+        Assertions.assertEquals(5, forecasts.size());
+        Assertions.assertEquals("mileage_band", forecasts.get(1).getBasis());
+        Assertions.assertEquals(300.0, forecasts.get(3).getProjectedCost());
+        Assertions.assertEquals(3, forecasts.get(3).getPeerCount());
+        // Alone in its band: average of the whole make/model
+        Assertions.assertEquals("make_model", forecasts.get(4).getBasis());
+        Assertions.assertEquals(750.0, forecasts.get(4).getProjectedCost());
+        Assertions.assertEquals(0.0, forecasts.get(5).getProjectedCost());
+        verify(forecastRepository, times(1)).deleteComputedBefore(any());
+    }
+
+    @Test
+    public void missingForecastThrowsTest() {
+        when(forecastRepository.findMaintenanceCostForecastByCarId(7)).thenReturn(null);
+
+        Assertions.assertThrows(ApiException.class, () -> forecastService.getForecast(7));
+    }
+}
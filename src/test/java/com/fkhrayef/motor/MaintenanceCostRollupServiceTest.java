@@ -0,0 +1,88 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Model.Car;
+import com.fkhrayef.motor.Model.Maintenance;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.MaintenanceCostRollupRepository;
+import com.fkhrayef.motor.Repository.MaintenanceRepository;
+import com.fkhrayef.motor.Service.MaintenanceCostRollupService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MaintenanceCostRollupServiceTest {
+
+    @InjectMocks
+    MaintenanceCostRollupService costRollupService;
+
+    @Mock
+    MaintenanceCostRollupRepository rollupRepository;
+    @Mock
+    MaintenanceRepository maintenanceRepository;
+    @Mock
+    CarRepository carRepository;
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    Car car1;
+    Maintenance maintenance1, repair1;
+
+    @BeforeEach
+    void setup() {
+        car1 = new Car(1, "Nissan", "Altima", 2022, "My Car", 27500, "DSL38FJDMR93JFKV2", LocalDate.of(2023, 7, 21), null, null, null, null, true, null, null, null, null, LocalDateTime.now(), LocalDateTime.now());
+        maintenance1 = new Maintenance(1, "MAINTENANCE", "Oil change", LocalDate.of(2025, 3, 18), 27000, null, null, 250.0, car1, LocalDateTime.now(), LocalDateTime.now());
+        repair1 = new Maintenance(2, "REPAIR", "Bumper", LocalDate.of(2025, 4, 2), 27200, null, null, 900.0, car1, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    @Test
+    public void addMaintenanceUpsertsBandAndMonthTest() {
+        costRollupService.recordMaintenance(car1, maintenance1, 1);
+
+        verify(rollupRepository, times(1)).upsertDelta("Nissan", "Altima", 2, LocalDate.of(2025, 3, 1), 250.0, 1);
+    }
+
+    @Test
+    public void nonMaintenanceRecordsAreIgnoredTest() {
+        costRollupService.recordMaintenance(car1, repair1, 1);
+
+        verify(rollupRepository, never()).upsertDelta(anyString(), anyString(), anyInt(), any(), anyDouble(), anyInt());
+    }
+
+    @Test
+    public void mileageBandChangeMovesSpendTest() {
+        when(maintenanceRepository.findMaintenancesByCarId(1)).thenReturn(List.of(maintenance1));
+
+        costRollupService.moveCar(car1, "Nissan", "Altima", 19000);
+
+        verify(rollupRepository, times(1)).upsertDelta("Nissan", "Altima", 1, LocalDate.of(2025, 3, 1), -250.0, -1);
+        verify(rollupRepository, times(1)).upsertDelta("Nissan", "Altima", 2, LocalDate.of(2025, 3, 1), 250.0, 1);
+    }
+
+    @Test
+    public void sameBandDoesNotTouchRollupTest() {
+        costRollupService.moveCar(car1, "Nissan", "Altima", 25000);
+
+        verifyNoInteractions(maintenanceRepository);
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    public void countCarsUsesBandBoundariesTest() {
+        when(carRepository.countByMakeAndModelAndMileageBetween("Nissan", "Altima", 20000, 39999)).thenReturn(3L);
+
+        Assertions.assertEquals(3L, costRollupService.countCars("Nissan", "Altima", 25000, 35000));
+    }
+}
@@ -0,0 +1,111 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.DTOout.MaintenanceReminderResponseDTO;
+import com.fkhrayef.motor.Model.MaintenanceScheduleItem;
+import com.fkhrayef.motor.Repository.MaintenanceScheduleItemRepository;
+import com.fkhrayef.motor.Service.MaintenanceScheduleService;
+import com.fkhrayef.motor.Service.ReactiveRAGService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MaintenanceScheduleServiceTest {
+
+    @InjectMocks
+    MaintenanceScheduleService maintenanceScheduleService;
+
+    @Mock
+    MaintenanceScheduleItemRepository scheduleRepository;
+    @Mock
+    ReactiveRAGService reactiveRAGService;
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    MaintenanceScheduleItem oilChange, brakeFluid, tireRotation;
+    LocalDate today;
+
+    @BeforeEach
+    void setup() {
+        oilChange = new MaintenanceScheduleItem(1, "2022 Nissan Altima owner-manual", "Replace engine oil", "engine", "high", 10000, 12, null);
+        brakeFluid = new MaintenanceScheduleItem(2, "2022 Nissan Altima owner-manual", "Replace brake fluid", "brakes", "medium", null, 24, null);
+        tireRotation = new MaintenanceScheduleItem(3, "2022 Nissan Altima owner-manual", "Rotate tires", "tires", "low", 5000, null, null);
+        today = LocalDate.of(2025, 1, 1);
+    }
+
+    @Test
+    public void kmIntervalUsesCarUsageTest() {
+        // 100 km/day since purchase, 7,500 km => next rotation at 10,000 km in 25 days
+        LocalDate purchaseDate = today.minusDays(75);
+
+        MaintenanceReminderResponseDTO result = maintenanceScheduleService.computeReminders(
+                "2022 Nissan Altima owner-manual", List.of(tireRotation), 7500, purchaseDate, today);
+
+        Assertions.assertTrue(result.getSuccess());
+        Assertions.assertEquals(1, result.getReminders().size());
+        Assertions.assertEquals(10000, result.getReminders().get(0).getMileage());
+        Assertions.assertEquals(today.plusDays(25).toString(), result.getReminders().get(0).getDueDate());
+        Assertions.assertEquals("Rotate tires at 10000 km", result.getReminders().get(0).getMessage());
+    }
+
+    @Test
+    public void earlierOfKmAndMonthsWinsTest() {
+        // Barely driven: the 12 month deadline comes long before 10,000 km
+        LocalDate purchaseDate = LocalDate.of(2024, 3, 15);
+
+        MaintenanceReminderResponseDTO result = maintenanceScheduleService.computeReminders(
+                "2022 Nissan Altima owner-manual", List.of(oilChange), 1000, purchaseDate, today);
+
+        Assertions.assertEquals("2025-03-15", result.getReminders().get(0).getDueDate());
+        Assertions.assertEquals(10000, result.getReminders().get(0).getMileage());
+    }
+
+    @Test
+    public void monthOnlyIntervalTest() {
+        LocalDate purchaseDate = LocalDate.of(2021, 6, 1);
+
+        MaintenanceReminderResponseDTO result = maintenanceScheduleService.computeReminders(
+                "2022 Nissan Altima owner-manual", List.of(brakeFluid), 60000, purchaseDate, today);
+
+        Assertions.assertEquals("2025-06-01", result.getReminders().get(0).getDueDate());
+        Assertions.assertNull(result.getReminders().get(0).getMileage());
+        Assertions.assertEquals("Replace brake fluid", result.getReminders().get(0).getMessage());
+    }
+
+    @Test
+    public void extractionIsOffByDefaultTest() {
+        maintenanceScheduleService.requestExtraction("2022 Nissan Altima owner-manual");
+
+        verify(reactiveRAGService, never()).extractMaintenanceSchedule(anyString());
+    }
+
+    @Test
+    public void extractionStopsOnceBackendLacksEndpointTest() {
+        ReflectionTestUtils.setField(maintenanceScheduleService, "extractionEnabled", true);
+        when(reactiveRAGService.isMaintenanceScheduleAvailable()).thenReturn(false);
+
+        maintenanceScheduleService.requestExtraction("2022 Nissan Altima owner-manual");
+
+        verify(reactiveRAGService, never()).extractMaintenanceSchedule(anyString());
+    }
+
+    @Test
+    public void nonPositiveDefaultKmPerDayIsRejectedTest() {
+        ReflectionTestUtils.setField(maintenanceScheduleService, "defaultKmPerDay", 0.0);
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> ReflectionTestUtils.invokeMethod(maintenanceScheduleService, "validateConfig"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.DTOout.ManualIngestionJobResponse;
+import com.fkhrayef.motor.Model.ManualIngestionJob;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.ManualIngestionJobRepository;
+import com.fkhrayef.motor.Service.MaintenanceScheduleService;
+import com.fkhrayef.motor.Service.ManualIngestionService;
+import com.fkhrayef.motor.Service.RAGService;
+import com.fkhrayef.motor.Service.S3Service;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ManualIngestionServiceTest {
+
+    @InjectMocks
+    ManualIngestionService manualIngestionService;
+
+    @Mock
+    ManualIngestionJobRepository jobRepository;
+    @Mock
+    CarRepository carRepository;
+    @Mock
+    S3Service s3Service;
+    @Mock
+    RAGService ragService;
+    @Mock
+    MaintenanceScheduleService maintenanceScheduleService;
+    @Mock
+    ThreadPoolTaskExecutor ingestionExecutor;
+    @Mock
+    TaskScheduler taskScheduler;
+
+    ManualIngestionJob job1;
+
+    @BeforeEach
+    void setup() {
+        job1 = new ManualIngestionJob(1, "processing", "2022 Nissan Altima owner-manual", "2022-nissan-altima-owner-manual.pdf",
+                null, "application/pdf", "https://bucket.s3.eu-central-1.amazonaws.com/catalogs/2022-nissan-altima-owner-manual.pdf",
+                0, null, 1, 1, null, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    @Test
+    public void duplicateUploadFoldsIntoInFlightJobTest() {
+        MockMultipartFile file = new MockMultipartFile("file", "manual.pdf", "application/pdf", new byte[]{1, 2, 3});
+        when(jobRepository.findFirstByDocumentNameAndStatusInOrderByIdDesc(eq("2022 Nissan Altima owner-manual"), anyCollection())).thenReturn(job1);
+
+        ManualIngestionJobResponse response = manualIngestionService.submit(1, 1, "2022 Nissan Altima owner-manual",
+                "2022-nissan-altima-owner-manual.pdf", file);
+
+        Assertions.assertEquals(1, response.getJobId());
+        Assertions.assertEquals("processing", response.getStatus());
+        verify(jobRepository, never()).save(any());
+        verify(ingestionExecutor, never()).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void sameManualFromAnotherOwnerSharesTheJobTest(@TempDir Path stagingDir) {
+        ReflectionTestUtils.setField(manualIngestionService, "stagingDir", stagingDir.toString());
+        MockMultipartFile file = new MockMultipartFile("file", "manual.pdf", "application/pdf", new byte[]{1, 2, 3});
+        when(jobRepository.findFirstByDocumentNameAndStatusInOrderByIdDesc(eq("2022 Nissan Altima owner-manual"), anyCollection())).thenReturn(null);
+        when(jobRepository.save(any(ManualIngestionJob.class))).thenAnswer(invocation -> {
+            ManualIngestionJob saved = invocation.getArgument(0);
+            if (saved.getId() == null) {
+                saved.setId(2);
+            }
+            return saved;
+        });
+
+        ManualIngestionJobResponse first = manualIngestionService.submit(1, 1, "2022 Nissan Altima owner-manual",
+                "2022-nissan-altima-owner-manual.pdf", file);
+        ManualIngestionJob saved = new ManualIngestionJob(2, "queued", "2022 Nissan Altima owner-manual",
+                "2022-nissan-altima-owner-manual.pdf", null, "application/pdf", null, 0, null, 1, 1, null, LocalDateTime.now(), LocalDateTime.now());
+        when(jobRepository.findManualIngestionJobById(2)).thenReturn(saved);
+
+        // User 2 owns the same model: no second job, and the response shows user 2's car
+        ManualIngestionJobResponse second = manualIngestionService.submit(2, 7, "2022 Nissan Altima owner-manual",
+                "2022-nissan-altima-owner-manual.pdf", file);
+
+        Assertions.assertEquals(2, first.getJobId());
+        Assertions.assertEquals(2, second.getJobId());
+        Assertions.assertEquals(7, second.getCarId());
+        verify(ingestionExecutor, times(1)).execute(any(Runnable.class));
+
+        when(carRepository.findIdsByUserIdAndDocumentName(1, "2022 Nissan Altima owner-manual")).thenReturn(List.of(1));
+        when(carRepository.findIdsByUserIdAndDocumentName(2, "2022 Nissan Altima owner-manual")).thenReturn(List.of(7));
+        when(carRepository.findIdsByUserIdAndDocumentName(3, "2022 Nissan Altima owner-manual")).thenReturn(List.of());
+        Assertions.assertEquals(1, manualIngestionService.getJob(1, 2).getCarId());
+        Assertions.assertEquals(7, manualIngestionService.getJob(2, 2).getCarId());
+        Assertions.assertThrows(ApiException.class, () -> manualIngestionService.getJob(3, 2));
+    }
+
+    @Test
+    public void resumedJobCompletesTest() {
+        when(jobRepository.findAllByStatusIn(anyCollection())).thenReturn(List.of(job1));
+        when(jobRepository.findManualIngestionJobById(1)).thenReturn(job1);
+        when(jobRepository.save(job1)).thenReturn(job1);
+        when(ragService.processDocument(job1.getS3Url(), job1.getDocumentName())).thenReturn(true);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(ingestionExecutor).execute(any(Runnable.class));
+
+        manualIngestionService.resumeUnfinishedJobs();
+
+        Assertions.assertEquals("completed", job1.getStatus());
+        Assertions.assertEquals(1, job1.getAttempts());
+        Assertions.assertNotNull(job1.getCompletedAt());
+        verify(s3Service, never()).uploadCatalogFile(any(Path.class), anyString(), anyString());
+        verify(maintenanceScheduleService, times(1)).requestExtraction("2022 Nissan Altima owner-manual");
+    }
+
+    @Test
+    public void failedAttemptIsRetriedWithBackoffTest() {
+        when(jobRepository.findAllByStatusIn(anyCollection())).thenReturn(List.of(job1));
+        when(jobRepository.findManualIngestionJobById(1)).thenReturn(job1);
+        when(jobRepository.save(job1)).thenReturn(job1);
+        when(ragService.processDocument(job1.getS3Url(), job1.getDocumentName())).thenReturn(false);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(ingestionExecutor).execute(any(Runnable.class));
+
+        manualIngestionService.resumeUnfinishedJobs();
+
+        Assertions.assertEquals("queued", job1.getStatus());
+        Assertions.assertEquals("Failed to process document in RAG system", job1.getLastError());
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+}
@@ -0,0 +1,116 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.Model.NotificationOutbox;
+import com.fkhrayef.motor.Repository.NotificationOutboxRepository;
+import com.fkhrayef.motor.Service.EmailService;
+import com.fkhrayef.motor.Service.FanOutService;
+import com.fkhrayef.motor.Service.NotificationOutboxService;
+import com.fkhrayef.motor.Service.WhatsAppService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationOutboxServiceTest {
+
+    @InjectMocks
+    NotificationOutboxService outboxService;
+
+    @Mock
+    NotificationOutboxRepository outboxRepository;
+    @Mock
+    WhatsAppService whatsappService;
+    @Mock
+    EmailService emailService;
+    @Mock
+    FanOutService fanOutService;
+
+    private NotificationOutbox notification(Integer id, String channel, int attempts) {
+        return new NotificationOutbox(id, channel, "+966535347890", null, "Reminder", "sending", attempts,
+                LocalDateTime.now(), "token", LocalDateTime.now(), null, null, LocalDateTime.now().minusSeconds(5), null);
+    }
+
+    @Test
+    public void enqueueStoresPendingRowTest() {
+        outboxService.enqueueEmailHtml("faisal@example.com", "Expiry", "<p>soon</p>");
+
+        ArgumentCaptor<NotificationOutbox> saved = ArgumentCaptor.forClass(NotificationOutbox.class);
+        verify(outboxRepository).save(saved.capture());
+        Assertions.assertEquals("email_html", saved.getValue().getChannel());
+        Assertions.assertEquals("pending", saved.getValue().getStatus());
+        Assertions.assertNotNull(saved.getValue().getNextAttemptAt());
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    public void drainDeliversClaimedRowsTest() {
+        NotificationOutbox whatsapp = notification(1, "whatsapp", 0);
+        NotificationOutbox email = notification(2, "email", 0);
+        when(outboxRepository.findDueIds(any(), any())).thenReturn(List.of(1, 2));
+        when(outboxRepository.findAllByClaimTokenAndStatus(anyString(), eq("sending"))).thenReturn(List.of(whatsapp, email));
+        List<String> providers = new ArrayList<>();
+        doAnswer(invocation -> {
+            Collection<NotificationOutbox> items = invocation.getArgument(1);
+            Function<NotificationOutbox, String> providerOf = invocation.getArgument(2);
+            Consumer<NotificationOutbox> task = invocation.getArgument(3);
+            items.forEach(item -> {
+                providers.add(providerOf.apply(item));
+                task.accept(item);
+            });
+            return new FanOutService.Result(items.size(), items.size(), 0, 0);
+        }).when(fanOutService).run(eq("notification-outbox"), any(), any(), any());
+
+        outboxService.drain();
+
+        verify(outboxRepository).claim(eq(List.of(1, 2)), anyString(), any());
+        verify(whatsappService).sendWhatsAppMessage("Reminder", "+966535347890");
+        verify(emailService).sendEmail("+966535347890", null, "Reminder");
+        Assertions.assertEquals("sent", whatsapp.getStatus());
+        Assertions.assertEquals("sent", email.getStatus());
+        Assertions.assertEquals(2, outboxService.getStats().getDelivered());
+        Assertions.assertEquals(List.of("whatsapp", "email"), providers);
+    }
+
+    @Test
+    public void failedDeliveryIsRetriedWithBackoffTest() {
+        NotificationOutbox whatsapp = notification(1, "whatsapp", 1);
+        doThrow(new ApiException("Ultramsg error")).when(whatsappService).sendWhatsAppMessage(anyString(), anyString());
+
+        outboxService.deliver(whatsapp);
+
+        Assertions.assertEquals("pending", whatsapp.getStatus());
+        Assertions.assertEquals(2, whatsapp.getAttempts());
+        Assertions.assertNull(whatsapp.getClaimToken());
+        // Second attempt failed: 30s << 1
+        Assertions.assertTrue(whatsapp.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(55)));
+        Assertions.assertEquals("Ultramsg error", whatsapp.getLastError());
+    }
+
+    @Test
+    public void lastFailedAttemptMarksDeadTest() {
+        NotificationOutbox whatsapp = notification(1, "whatsapp", 4);
+        doThrow(new ApiException("Ultramsg error")).when(whatsappService).sendWhatsAppMessage(anyString(), anyString());
+
+        outboxService.deliver(whatsapp);
+
+        Assertions.assertEquals("dead", whatsapp.getStatus());
+        Assertions.assertEquals(1, outboxService.getStats().getDeadLettered());
+    }
+}
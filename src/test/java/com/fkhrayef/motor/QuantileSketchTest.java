@@ -0,0 +1,48 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Util.QuantileSketch;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class QuantileSketchTest {
+
+    @Test
+    public void quantilesWithinRelativeAccuracyTest() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 10_000_000);
+        for (int i = 1; i <= 1000; i++) {
+            sketch.add(i * 100);
+        }
+
+        Assertions.assertEquals(1000, sketch.getCount());
+        Assertions.assertEquals(10_000, sketch.quantile(0.1), 10_000 * 0.011);
+        Assertions.assertEquals(50_000, sketch.quantile(0.5), 50_000 * 0.011);
+        Assertions.assertEquals(90_000, sketch.quantile(0.9), 90_000 * 0.011);
+    }
+
+    @Test
+    public void removeAndMergeTest() {
+        QuantileSketch riyadh = new QuantileSketch(0.01, 10_000_000);
+        QuantileSketch jeddah = riyadh.emptyCopy();
+        riyadh.add(0);
+        riyadh.add(12_500);
+        jeddah.add(22_500);
+        jeddah.add(32_500);
+
+        riyadh.remove(0);
+        riyadh.merge(jeddah);
+
+        Assertions.assertEquals(3, riyadh.getCount());
+        Assertions.assertEquals(22_500, riyadh.quantile(0.5), 22_500 * 0.011);
+        Assertions.assertArrayEquals(new long[]{0, 0, 1, 0, 1, 0, 1}, riyadh.histogram(5_000, 20));
+    }
+
+    @Test
+    public void removingAbsentValueIsIgnoredTest() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 10_000_000);
+        sketch.add(500);
+
+        sketch.remove(90_000);
+
+        Assertions.assertEquals(1, sketch.getCount());
+    }
+}
@@ -0,0 +1,78 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Api.ApiException;
+import com.fkhrayef.motor.Service.RAGResilienceService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RAGResilienceServiceTest {
+
+    RAGResilienceService resilience;
+
+    AtomicInteger upstreamCalls;
+
+    @BeforeEach
+    void setup() {
+        resilience = new RAGResilienceService();
+        ReflectionTestUtils.setField(resilience, "windowSize", 4);
+        ReflectionTestUtils.setField(resilience, "minimumCalls", 4);
+        ReflectionTestUtils.setField(resilience, "maxConcurrent", 1);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    private Mono<String> failingCall() {
+        upstreamCalls.incrementAndGet();
+        return Mono.error(new IllegalStateException("connection refused"));
+    }
+
+    @Test
+    public void breakerOpensAfterFailuresTest() {
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> resilience.guard("ask", Duration.ofSeconds(1), this::failingCall).block());
+        }
+        Assertions.assertEquals("open", resilience.getStats().getBreakerState());
+
+        ApiException rejected = Assertions.assertThrows(ApiException.class,
+                () -> resilience.guard("ask", Duration.ofSeconds(1), this::failingCall).block());
+        Assertions.assertEquals("RAG service is temporarily unavailable, please try again shortly", rejected.getMessage());
+        Assertions.assertEquals(4, upstreamCalls.get());
+        Assertions.assertEquals(1, resilience.getStats().getRejectedByBreaker());
+    }
+
+    @Test
+    public void clientErrorsDoNotOpenBreakerTest() {
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertThrows(ApiException.class,
+                    () -> resilience.guard("ask", Duration.ofSeconds(1), () -> Mono.error(new ApiException("HTTP 404 NOT_FOUND"))).block());
+        }
+        Assertions.assertEquals("closed", resilience.getStats().getBreakerState());
+    }
+
+    @Test
+    public void bulkheadRejectsWhenFullTest() {
+        resilience.guard("ask", Duration.ofSeconds(5), Mono::<String>never).subscribe();
+
+        ApiException rejected = Assertions.assertThrows(ApiException.class,
+                () -> resilience.guard("ask", Duration.ofSeconds(1), () -> Mono.just("ok")).block());
+        Assertions.assertEquals("RAG service is busy, please try again shortly", rejected.getMessage());
+        Assertions.assertEquals(1, resilience.getStats().getBulkheadInUse());
+        Assertions.assertEquals(1, resilience.getStats().getRejectedByBulkhead());
+    }
+
+    @Test
+    public void timeoutCountsAsFailureTest() {
+        Assertions.assertThrows(RuntimeException.class,
+                () -> resilience.guard("documents-info", Duration.ofMillis(20), Mono::<String>never).block());
+
+        Assertions.assertEquals(1L, resilience.getStats().getOperations().get("documents-info").get("timeouts"));
+        Assertions.assertEquals(1L, resilience.getStats().getOperations().get("documents-info").get("failures"));
+        Assertions.assertEquals(0, resilience.getStats().getBulkheadInUse());
+    }
+}
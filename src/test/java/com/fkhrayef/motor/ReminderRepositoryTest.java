@@ -0,0 +1,86 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Model.Car;
+import com.fkhrayef.motor.Model.Reminder;
+import com.fkhrayef.motor.Model.User;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.ReminderRepository;
+import com.fkhrayef.motor.Repository.UserRepository;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ReminderRepositoryTest {
+
+    @Autowired
+    ReminderRepository reminderRepo;
+
+    @Autowired
+    CarRepository carRepo;
+
+    @Autowired
+    UserRepository userRepo;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    User user1;
+    Car car1;
+    LocalDate tomorrow, nextWeek;
+    Reminder dueTomorrowSent, dueInFive, dueInFiveSent, dueInTen, overdue;
+
+    @BeforeEach
+    void setUp() {
+        tomorrow = LocalDate.now().plusDays(1);
+        nextWeek = LocalDate.now().plusDays(7);
+
+        user1 = new User(null, "+966535347890", "Faisal", "faisal@example.com", "1234", "Riyadh", "USER", null, null, null, null, null, null, null, null, null, null, null, null, LocalDateTime.now(), LocalDateTime.now());
+        userRepo.save(user1);
+        car1 = new Car(null, "Nissan", "Altima", 2022, "My Car", 7500, "DSL38FJDMR93JFKV2", LocalDate.of(2023, 7, 21), null, null, null, null, true, user1, null, null, null, LocalDateTime.now(), LocalDateTime.now());
+        carRepo.save(car1);
+
+        dueTomorrowSent = reminderRepo.save(new Reminder(null, "maintenance", tomorrow, "Oil change", true, null, null, null, car1, LocalDateTime.now(), LocalDateTime.now()));
+        dueInFive = reminderRepo.save(new Reminder(null, "maintenance", tomorrow.plusDays(4), "Tire rotation", false, null, null, null, car1, LocalDateTime.now(), LocalDateTime.now()));
+        dueInFiveSent = reminderRepo.save(new Reminder(null, "maintenance", tomorrow.plusDays(4), "Brake check", true, null, null, null, car1, LocalDateTime.now(), LocalDateTime.now()));
+        dueInTen = reminderRepo.save(new Reminder(null, "maintenance", tomorrow.plusDays(9), "Coolant", false, null, null, null, car1, LocalDateTime.now(), LocalDateTime.now()));
+        overdue = reminderRepo.save(new Reminder(null, "maintenance", tomorrow.minusDays(3), "Wipers", false, null, null, null, car1, LocalDateTime.now(), LocalDateTime.now()));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void findDueForNotification() {
+        List<Reminder> due = reminderRepo.findDueForNotification(tomorrow, nextWeek, 1, 0);
+
+        List<Integer> ids = due.stream().map(Reminder::getId).sorted().toList();
+        Assertions.assertEquals(List.of(dueTomorrowSent.getId(), dueInFive.getId()), ids);
+        for (Reminder reminder : due) {
+            Assertions.assertTrue(Hibernate.isInitialized(reminder.getCar()));
+            Assertions.assertTrue(Hibernate.isInitialized(reminder.getCar().getUser()));
+            Assertions.assertEquals(user1.getId(), reminder.getCar().getUser().getId());
+        }
+    }
+
+    @Test
+    public void findDueForNotificationInPartition() {
+        int ownerPartition = user1.getId() % 2;
+
+        Assertions.assertEquals(2, reminderRepo.findDueForNotification(tomorrow, nextWeek, 2, ownerPartition).size());
+        Assertions.assertTrue(reminderRepo.findDueForNotification(tomorrow, nextWeek, 2, 1 - ownerPartition).isEmpty());
+    }
+}
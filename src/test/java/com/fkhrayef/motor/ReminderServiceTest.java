@@ -0,0 +1,150 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.DTOout.MaintenanceReminderResponseDTO;
+import com.fkhrayef.motor.Model.Car;
+import com.fkhrayef.motor.Model.MaintenanceScheduleItem;
+import com.fkhrayef.motor.Model.Reminder;
+import com.fkhrayef.motor.Model.Subscription;
+import com.fkhrayef.motor.Model.User;
+import com.fkhrayef.motor.Repository.CarRepository;
+import com.fkhrayef.motor.Repository.ReminderRepository;
+import com.fkhrayef.motor.Repository.UserRepository;
+import com.fkhrayef.motor.Service.MaintenanceScheduleService;
+import com.fkhrayef.motor.Service.NotificationOutboxService;
+import com.fkhrayef.motor.Service.RAGService;
+import com.fkhrayef.motor.Service.ReminderService;
+import com.fkhrayef.motor.Service.SchedulerLockService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReminderServiceTest {
+
+    @InjectMocks
+    ReminderService reminderService;
+
+    @Mock
+    CarRepository carRepository;
+    @Mock
+    NotificationOutboxService notificationOutbox;
+    @Mock
+    SchedulerLockService schedulerLock;
+    @Mock
+    ReminderRepository reminderRepository;
+    @Mock
+    UserRepository userRepository;
+    @Mock
+    RAGService ragService;
+    @Mock
+    MaintenanceScheduleService maintenanceScheduleService;
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reminderService, "mileagePageSize", 2);
+        lenient().when(schedulerLock.runPartitioned(eq("weekly-mileage-reminders"), any())).thenAnswer(invocation -> {
+            Consumer<SchedulerLockService.Partition> job = invocation.getArgument(1);
+            job.accept(SchedulerLockService.Partition.ALL);
+            return true;
+        });
+    }
+
+    private Object[] row(int carId, int userId, String phone, String model, Integer mileage) {
+        return new Object[]{carId, userId, phone, "Nissan", model, 2022, mileage};
+    }
+
+    @Test
+    public void sendWeeklyMileageRemindersGroupsCarsPerUserTest() {
+        when(carRepository.findMileageReminderRows(0, 0, 1, 0, Limit.of(2)))
+                .thenReturn(List.of(row(1, 1, "+966500000001", "Altima", 7500), row(2, 1, "+966500000001", "Sentra", null)));
+        // User 1's third car is on the next page
+        when(carRepository.findMileageReminderRows(1, 2, 1, 0, Limit.of(2)))
+                .thenReturn(List.of(row(5, 1, "+966500000001", "Patrol", 12000), row(3, 2, "+966500000002", "Kicks", 300)));
+        when(carRepository.findMileageReminderRows(2, 3, 1, 0, Limit.of(2))).thenReturn(List.of());
+
+        reminderService.sendWeeklyMileageReminders();
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(notificationOutbox).enqueueWhatsApp(eq("+966500000001"), message.capture());
+        Assertions.assertTrue(message.getValue().contains("Altima"));
+        Assertions.assertTrue(message.getValue().contains("Sentra"));
+        Assertions.assertTrue(message.getValue().contains("Patrol"));
+        Assertions.assertTrue(message.getValue().contains("12000"));
+        verify(notificationOutbox).enqueueWhatsApp(eq("+966500000002"), contains("Kicks"));
+        verify(notificationOutbox, times(2)).enqueueWhatsApp(anyString(), anyString());
+    }
+
+    @Test
+    public void sendWeeklyMileageRemindersStopsOnShortPageTest() {
+        when(carRepository.findMileageReminderRows(0, 0, 1, 0, Limit.of(2)))
+                .thenReturn(List.<Object[]>of(row(4, 7, "+966500000007", "Altima", 900)));
+
+        reminderService.sendWeeklyMileageReminders();
+
+        verify(carRepository, times(1)).findMileageReminderRows(any(), any(), anyInt(), anyInt(), any());
+        verify(notificationOutbox).enqueueWhatsApp(eq("+966500000007"), contains("900"));
+    }
+
+    @Test
+    public void regeneratedKmReminderIsNotDuplicatedTest() {
+        User user = new User();
+        user.setId(1);
+        Subscription subscription = new Subscription();
+        subscription.setStatus("active");
+        subscription.setPlanType("pro");
+        user.setSubscription(subscription);
+        Car car = new Car();
+        car.setId(5);
+        car.setMake("Nissan");
+        car.setModel("Altima");
+        car.setYear(2022);
+        car.setMileage(12000);
+        car.setPurchaseDate(LocalDate.of(2023, 7, 21));
+        car.setUser(user);
+        List<MaintenanceScheduleItem> schedule = List.of(new MaintenanceScheduleItem(1, "2022 Nissan Altima owner-manual", "Rotate tires", "tires", "low", 5000, null, null));
+
+        when(userRepository.findUserById(1)).thenReturn(user);
+        when(carRepository.findCarById(5)).thenReturn(car);
+        when(ragService.documentExists("2022 Nissan Altima owner-manual")).thenReturn(true);
+        when(maintenanceScheduleService.getSchedule("2022 Nissan Altima owner-manual")).thenReturn(schedule);
+        // The km deadline was projected to another day when the reminder was first stored
+        when(maintenanceScheduleService.computeReminders(eq("2022 Nissan Altima owner-manual"), eq(schedule), eq(12000), any(), any()))
+                .thenReturn(new MaintenanceReminderResponseDTO(true, List.of(
+                        new MaintenanceReminderResponseDTO.ReminderDataDTO("maintenance", "2025-02-03", "Rotate tires at 15000 km", 15000, "low", "tires"),
+                        new MaintenanceReminderResponseDTO.ReminderDataDTO("maintenance", "2025-03-01", "Replace brake fluid", null, "medium", "brakes")),
+                        "2022 Nissan Altima owner-manual", 12000, null, null));
+        when(reminderRepository.findReminderKeysByCarIdAndType(5, "maintenance"))
+                .thenReturn(List.<Object[]>of(new Object[]{LocalDate.of(2025, 1, 28), "Rotate tires at 15000 km", 15000}));
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        reminderService.generateAndSaveMaintenanceReminders(1, 5).block();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Reminder>> saved = ArgumentCaptor.forClass(List.class);
+        verify(reminderRepository).batchInsert(saved.capture());
+        Assertions.assertEquals(1, saved.getValue().size());
+        Assertions.assertEquals("Replace brake fluid", saved.getValue().get(0).getMessage());
+    }
+}
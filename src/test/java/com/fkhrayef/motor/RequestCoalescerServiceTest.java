@@ -0,0 +1,75 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Service.RequestCoalescerService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestCoalescerServiceTest {
+
+    RequestCoalescerService coalescer;
+
+    AtomicInteger upstreamCalls;
+    Sinks.One<String> upstream;
+
+    @BeforeEach
+    void setup() {
+        coalescer = new RequestCoalescerService();
+        upstreamCalls = new AtomicInteger();
+        upstream = Sinks.one();
+    }
+
+    private Mono<String> call() {
+        upstreamCalls.incrementAndGet();
+        return upstream.asMono();
+    }
+
+    @Test
+    public void concurrentIdenticalCallsShareOneUpstreamTest() {
+        List<String> results = new ArrayList<>();
+
+        coalescer.coalesce("ask", "oil capacity", this::call).subscribe(results::add);
+        coalescer.coalesce("ask", "oil capacity", this::call).subscribe(results::add);
+        Assertions.assertEquals(1, coalescer.getStats().getInFlight());
+
+        upstream.tryEmitValue("4.4 liters");
+
+        Assertions.assertEquals(1, upstreamCalls.get());
+        Assertions.assertEquals(List.of("4.4 liters", "4.4 liters"), results);
+        Assertions.assertEquals(1, coalescer.getStats().getCoalesced());
+        Assertions.assertEquals(1L, coalescer.getStats().getCoalescedByOperation().get("ask"));
+        Assertions.assertEquals(0, coalescer.getStats().getInFlight());
+    }
+
+    @Test
+    public void differentKeysAreNotCoalescedTest() {
+        coalescer.coalesce("ask", "oil capacity", this::call).subscribe();
+        coalescer.coalesce("ask", "tire pressure", this::call).subscribe();
+
+        Assertions.assertEquals(2, upstreamCalls.get());
+        Assertions.assertEquals(0, coalescer.getStats().getCoalesced());
+    }
+
+    @Test
+    public void finishedCallIsNotReusedTest() {
+        coalescer.coalesce("documents-info", "", () -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.just("first");
+        }).block();
+
+        String second = coalescer.coalesce("documents-info", "", () -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.just("second");
+        }).block();
+
+        Assertions.assertEquals("second", second);
+        Assertions.assertEquals(2, upstreamCalls.get());
+        Assertions.assertEquals(2, coalescer.getStats().getUpstreamCalls());
+    }
+}
@@ -0,0 +1,125 @@
+package com.fkhrayef.motor;
+
+import com.fkhrayef.motor.Repository.SchedulerLockRepository;
+import com.fkhrayef.motor.Repository.SchedulerNodeRepository;
+import com.fkhrayef.motor.Service.SchedulerLockService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SchedulerLockServiceTest {
+
+    @InjectMocks
+    SchedulerLockService schedulerLock;
+
+    @Mock
+    SchedulerLockRepository lockRepository;
+    @Mock
+    SchedulerNodeRepository nodeRepository;
+
+    @Test
+    public void exclusiveJobRunsWhenLeaseAcquiredTest() {
+        when(lockRepository.tryAcquire(eq("subscription-renewals"), anyString(), anyLong())).thenReturn(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        Assertions.assertTrue(schedulerLock.runExclusive("subscription-renewals", runs::incrementAndGet));
+
+        Assertions.assertEquals(1, runs.get());
+        verify(lockRepository).insertIfMissing("subscription-renewals");
+        verify(lockRepository).release(eq("subscription-renewals"), eq(schedulerLock.getNodeId()), anyLong());
+    }
+
+    @Test
+    public void exclusiveJobSkippedWhenHeldElsewhereTest() {
+        when(lockRepository.tryAcquire(anyString(), anyString(), anyLong())).thenReturn(0);
+        AtomicInteger runs = new AtomicInteger();
+
+        Assertions.assertFalse(schedulerLock.runExclusive("subscription-renewals", runs::incrementAndGet));
+
+        Assertions.assertEquals(0, runs.get());
+        verify(lockRepository, never()).release(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    public void leaseReleasedWhenJobFailsTest() {
+        when(lockRepository.tryAcquire(anyString(), anyString(), anyLong())).thenReturn(1);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> schedulerLock.runExclusive("car-access-reconcile", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        verify(lockRepository).release(eq("car-access-reconcile"), anyString(), anyLong());
+    }
+
+    @Test
+    public void partitionedJobRunsOnlyLeasedBucketsTest() {
+        ReflectionTestUtils.setField(schedulerLock, "bucketCount", 3);
+        when(nodeRepository.findLiveNodeIds(anyLong())).thenReturn(List.of(schedulerLock.getNodeId()));
+        when(lockRepository.tryAcquire(anyString(), anyString(), anyLong()))
+                .thenAnswer(invocation -> "reminder-notifications#1/3".equals(invocation.getArgument(0)) ? 0 : 1);
+        List<SchedulerLockService.Partition> seen = new ArrayList<>();
+
+        Assertions.assertTrue(schedulerLock.runPartitioned("reminder-notifications", seen::add));
+
+        Assertions.assertEquals(List.of(new SchedulerLockService.Partition(0, 3), new SchedulerLockService.Partition(2, 3)), seen);
+    }
+
+    @Test
+    public void nodesWithDifferentClusterViewsRunEachBucketOnceTest() {
+        // Shared lease table; the other node has not seen this one's heartbeat yet
+        Set<String> leased = new HashSet<>();
+        when(lockRepository.tryAcquire(anyString(), anyString(), anyLong()))
+                .thenAnswer(invocation -> leased.add(invocation.getArgument(0)) ? 1 : 0);
+        SchedulerNodeRepository otherNodeRepository = mock(SchedulerNodeRepository.class);
+        SchedulerLockService otherNode = new SchedulerLockService(lockRepository, otherNodeRepository);
+        when(nodeRepository.findLiveNodeIds(anyLong())).thenReturn(List.of(schedulerLock.getNodeId(), otherNode.getNodeId()));
+        when(otherNodeRepository.findLiveNodeIds(anyLong())).thenReturn(List.of(otherNode.getNodeId()));
+        List<SchedulerLockService.Partition> seen = new ArrayList<>();
+
+        schedulerLock.runPartitioned("car-expiry-alerts", seen::add);
+        otherNode.runPartitioned("car-expiry-alerts", seen::add);
+
+        Assertions.assertEquals(8, seen.size());
+        IntStream.rangeClosed(1, 100).forEach(userId ->
+                Assertions.assertEquals(1, seen.stream().filter(p -> p.owns(userId)).count()));
+    }
+
+    @Test
+    public void disabledPartitioningRunsOneBucketTest() {
+        ReflectionTestUtils.setField(schedulerLock, "partitioningEnabled", false);
+        when(lockRepository.tryAcquire(eq("weekly-mileage-reminders#0/1"), anyString(), anyLong())).thenReturn(1);
+        List<SchedulerLockService.Partition> seen = new ArrayList<>();
+
+        Assertions.assertTrue(schedulerLock.runPartitioned("weekly-mileage-reminders", seen::add));
+
+        Assertions.assertEquals(List.of(SchedulerLockService.Partition.ALL), seen);
+        verifyNoInteractions(nodeRepository);
+    }
+
+    @Test
+    public void partitionsCoverEveryUserOnceTest() {
+        List<SchedulerLockService.Partition> partitions = List.of(
+                new SchedulerLockService.Partition(0, 3), new SchedulerLockService.Partition(1, 3), new SchedulerLockService.Partition(2, 3));
+
+        IntStream.rangeClosed(1, 100).forEach(userId ->
+                Assertions.assertEquals(1, partitions.stream().filter(p -> p.owns(userId)).count()));
+        Assertions.assertFalse(SchedulerLockService.Partition.ALL.owns(null));
+    }
+}